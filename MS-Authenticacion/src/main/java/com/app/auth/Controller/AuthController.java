@@ -3,6 +3,7 @@ package com.app.auth.Controller;
 import com.app.auth.Dto.*;
 import com.app.auth.Exception.UserAlreadyExistsException;
 import com.app.auth.Service.AuthService;
+import com.app.auth.config.AuthPhaseMetrics;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -15,15 +16,18 @@ import org.hibernate.service.spi.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import jakarta.servlet.http.HttpServletRequest;
 import javax.naming.AuthenticationException;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
+import static com.app.auth.Controller.AuthLinks.Route.*;
 
 @RestController
 @RequestMapping("/api/auth/")
@@ -31,8 +35,23 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 @Tag(name = "Authentication", description = "API para manejo de autenticación y registro de usuarios")
 public class AuthController {
     private final AuthService authService;
+    private final AuthLinks authLinks;
+    private final AuthPhaseMetrics phaseMetrics;
     private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
+    // Enlaces y cuerpos constantes: no se reconstruyen en cada request
+    private static final AuthLinks.RouteLink LOGIN_SELF = AuthLinks.self(LOGIN);
+    private static final AuthLinks.RouteLink REFRESH_SELF = AuthLinks.self(REFRESH);
+    private static final AuthLinks.RouteLink VALIDATE_TOKEN_SELF = AuthLinks.self(VALIDATE_TOKEN);
+    private static final AuthLinks.RouteLink VALIDATE_TOKENS_SELF = AuthLinks.self(VALIDATE_TOKENS);
+    private static final AuthLinks.RouteLink REGISTER_SELF = AuthLinks.self(REGISTER);
+    private static final AuthLinks.RouteLink LOGIN_LINK = AuthLinks.rel(LOGIN, "login");
+    private static final AuthLinks.RouteLink REGISTER_LINK = AuthLinks.rel(REGISTER, "register");
+    private static final AuthLinks.RouteLink VALIDATE_TOKEN_LINK = AuthLinks.rel(VALIDATE_TOKEN, "validate-token");
+    private static final TokenValidResponse TOKEN_VALID = TokenValidResponse.builder()
+            .message("Token válido")
+            .build();
+
     @Operation(
             summary = "Iniciar sesión",
             description = "Autentica a un usuario y devuelve un token JWT"
@@ -50,17 +69,67 @@ public class AuthController {
             )
     })
     @PostMapping("login")
-    public ResponseEntity<EntityModel<AuthResponse>> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<EntityModel<AuthResponse>> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
         AuthResponse authResponse = authService.login(request);
 
-        EntityModel<AuthResponse> model = EntityModel.of(authResponse,
-                linkTo(methodOn(AuthController.class).login(request)).withSelfRel(),
-                linkTo(methodOn(AuthController.class).validateToken(new TokenValidationRequest(authResponse.getToken()))).withRel("validate-token")
-        );
+        long linksStart = System.nanoTime();
+        EntityModel<AuthResponse> model = authLinks.model(httpRequest, authResponse, LOGIN_SELF, VALIDATE_TOKEN_LINK);
+        phaseMetrics.record(AuthPhaseMetrics.Operation.LOGIN, AuthPhaseMetrics.Phase.LINKS,
+                AuthPhaseMetrics.Outcome.SUCCESS, linksStart);
 
         return ResponseEntity.ok(model);
     }
 
+    @Operation(
+            summary = "Renovar sesión",
+            description = "Canjea un refresh token por un access token nuevo y un refresh token rotado. " +
+                    "Reutilizar un refresh token ya canjeado revoca la sesión completa"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tokens renovados",
+                    content = @Content(schema = @Schema(implementation = AuthResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Refresh token inválido, expirado o reutilizado",
+                    content = @Content(schema = @Schema(implementation = AuthResponse.class))
+            )
+    })
+    @PostMapping("refresh")
+    public ResponseEntity<EntityModel<AuthResponse>> refresh(@RequestBody RefreshTokenRequest request, HttpServletRequest httpRequest) {
+        AuthResponse authResponse = authService.refresh(request);
+
+        EntityModel<AuthResponse> model = authLinks.model(httpRequest, authResponse, REFRESH_SELF, VALIDATE_TOKEN_LINK);
+
+        return ResponseEntity.ok(model);
+    }
+
+    @Operation(
+            summary = "Cerrar sesión",
+            description = "Revoca el access token del encabezado Authorization hasta su expiración y, si se envía, " +
+                    "la familia del refresh token. Un access token ya expirado se ignora",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Sesión cerrada"),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Token inválido o sin tokens que revocar",
+                    content = @Content(schema = @Schema(implementation = AuthResponse.class))
+            )
+    })
+    @PostMapping("logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+                                       @RequestBody(required = false) RefreshTokenRequest request) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7)
+                : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
     @Operation(
             summary = "Validar token",
             description = "Valida si un token JWT es válido",
@@ -79,21 +148,50 @@ public class AuthController {
             )
     })
     @PostMapping("validate-token")
-    public ResponseEntity<EntityModel<TokenValidResponse>> validateToken(@RequestBody TokenValidationRequest request) {
+    public ResponseEntity<EntityModel<TokenValidResponse>> validateToken(@RequestBody TokenValidationRequest request, HttpServletRequest httpRequest) {
         authService.validateToken(request.getToken());
 
-        TokenValidResponse response = TokenValidResponse.builder()
-                .message("Token válido")
-                .build();
-
-        EntityModel<TokenValidResponse> model = EntityModel.of(response,
-                linkTo(methodOn(AuthController.class).validateToken(request)).withSelfRel(),
-                linkTo(methodOn(AuthController.class).login(null)).withRel("login")
-        );
+        long linksStart = System.nanoTime();
+        EntityModel<TokenValidResponse> model = authLinks.model(httpRequest, TOKEN_VALID, VALIDATE_TOKEN_SELF, LOGIN_LINK);
+        phaseMetrics.record(AuthPhaseMetrics.Operation.VALIDATE_TOKEN, AuthPhaseMetrics.Phase.LINKS,
+                AuthPhaseMetrics.Outcome.SUCCESS, linksStart);
 
         return ResponseEntity.ok(model);
     }
 
+    @Operation(
+            summary = "Validar lote de tokens",
+            description = "Valida varios tokens JWT en una sola llamada y devuelve un veredicto por token, en el mismo orden. "
+                    + "Solo para cuentas de servicio con el permiso TOKEN_INTROSPECTION",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Veredictos por token",
+                    content = @Content(schema = @Schema(implementation = TokenBatchValidationResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lista vacía o demasiado grande",
+                    content = @Content(schema = @Schema(implementation = TokenBatchValidationResponse.class))
+            ),
+            @ApiResponse(responseCode = "401", description = "Sin token de servicio"),
+            @ApiResponse(responseCode = "403", description = "El llamante no tiene TOKEN_INTROSPECTION")
+    })
+    @PostMapping("validate-tokens")
+    public ResponseEntity<EntityModel<TokenBatchValidationResponse>> validateTokens(@RequestBody TokenBatchValidationRequest request, HttpServletRequest httpRequest) {
+        try {
+            TokenBatchValidationResponse response = authService.validateTokens(request.getTokens());
+
+            EntityModel<TokenBatchValidationResponse> model = authLinks.model(httpRequest, response, VALIDATE_TOKENS_SELF);
+
+            return ResponseEntity.ok(model);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @Operation(
             summary = "Registrar nuevo usuario",
             description = "Crea una nueva cuenta de usuario"
@@ -113,17 +211,22 @@ public class AuthController {
                     responseCode = "500",
                     description = "Error interno del servidor",
                     content = @Content(schema = @Schema(implementation = AuthResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Catálogo de roles aún sin sembrar o hashing saturado; reintentar",
+                    content = @Content(schema = @Schema(implementation = AuthResponse.class))
             )
     })
     @PostMapping("register")
-    public ResponseEntity<EntityModel<AuthResponse>> registerUser(@RequestBody RegisterRequest request) {
+    public ResponseEntity<EntityModel<AuthResponse>> registerUser(@RequestBody RegisterRequest request, HttpServletRequest httpRequest) {
         try {
             AuthResponse response = authService.createUser(request);
 
-            EntityModel<AuthResponse> model = EntityModel.of(response,
-                    linkTo(methodOn(AuthController.class).registerUser(request)).withSelfRel(),
-                    linkTo(methodOn(AuthController.class).login(null)).withRel("login")
-            );
+            long linksStart = System.nanoTime();
+            EntityModel<AuthResponse> model = authLinks.model(httpRequest, response, REGISTER_SELF, LOGIN_LINK);
+            phaseMetrics.record(AuthPhaseMetrics.Operation.CREATE_USER, AuthPhaseMetrics.Phase.LINKS,
+                    AuthPhaseMetrics.Outcome.SUCCESS, linksStart);
 
             return ResponseEntity.ok(model);
         } catch (UserAlreadyExistsException e) {
@@ -141,7 +244,7 @@ public class AuthController {
             AccessDeniedException.class,
             AuthenticationException.class
     })
-    public ResponseEntity<EntityModel<AuthResponse>> handleAuthExceptions(RuntimeException e) {
+    public ResponseEntity<EntityModel<AuthResponse>> handleAuthExceptions(RuntimeException e, HttpServletRequest httpRequest) {
         HttpStatus status = HttpStatus.UNAUTHORIZED;
         if (e instanceof AccessDeniedException) {
             status = HttpStatus.FORBIDDEN;
@@ -151,24 +254,32 @@ public class AuthController {
                 .message(e.getMessage())
                 .build();
 
-        EntityModel<AuthResponse> model = EntityModel.of(errorResponse,
-                linkTo(methodOn(AuthController.class).login(null)).withRel("login")
-        );
+        EntityModel<AuthResponse> model = authLinks.model(httpRequest, errorResponse, LOGIN_LINK);
 
         return ResponseEntity.status(status).body(model);
     }
 
+    @Operation(hidden = true)
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<EntityModel<AuthResponse>> handleResponseStatus(ResponseStatusException e, HttpServletRequest httpRequest) {
+        AuthResponse errorResponse = AuthResponse.builder()
+                .message(e.getReason())
+                .build();
+
+        EntityModel<AuthResponse> model = authLinks.model(httpRequest, errorResponse, LOGIN_LINK);
+
+        // PasswordHashingUnavailableException añade Retry-After
+        return ResponseEntity.status(e.getStatusCode()).headers(e.getHeaders()).body(model);
+    }
+
     @Operation(hidden = true)
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<EntityModel<AuthResponse>> handleGenericException(Exception e) {
+    public ResponseEntity<EntityModel<AuthResponse>> handleGenericException(Exception e, HttpServletRequest httpRequest) {
         AuthResponse errorResponse = AuthResponse.builder()
                 .message("Error interno del servidor: " + e.getMessage())
                 .build();
 
-        EntityModel<AuthResponse> model = EntityModel.of(errorResponse,
-                linkTo(methodOn(AuthController.class).login(null)).withRel("login"),
-                linkTo(methodOn(AuthController.class).registerUser(null)).withRel("register")
-        );
+        EntityModel<AuthResponse> model = authLinks.model(httpRequest, errorResponse, LOGIN_LINK, REGISTER_LINK);
 
         return ResponseEntity.internalServerError().body(model);
     }
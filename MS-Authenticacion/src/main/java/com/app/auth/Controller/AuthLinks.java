@@ -0,0 +1,111 @@
+package com.app.auth.Controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.MvcUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Enlaces HATEOAS de {@link AuthController} con las rutas resueltas una sola vez al arrancar.
+ * Por request solo se concatena la URL base (esquema, host, puerto y context path, igual que
+ * {@code linkTo(methodOn(...))}) con la ruta precalculada: sin proxies CGLIB ni expansión
+ * reflexiva de plantillas en login y validate-token.
+ *
+ * <p>Los clientes que no usan los enlaces pueden omitirlos con {@code X-Omit-Links: true};
+ * la respuesta conserva la misma forma, sin {@code _links}.
+ */
+@Component
+public class AuthLinks {
+
+    public static final String OMIT_LINKS_HEADER = "X-Omit-Links";
+
+    public enum Route {
+        LOGIN("login"),
+        REFRESH("refresh"),
+        VALIDATE_TOKEN("validateToken"),
+        VALIDATE_TOKENS("validateTokens"),
+        REGISTER("registerUser");
+
+        private final String handlerMethod;
+
+        Route(String handlerMethod) {
+            this.handlerMethod = handlerMethod;
+        }
+    }
+
+    public record RouteLink(Route route, LinkRelation rel) {
+    }
+
+    private final Map<Route, String> paths = new EnumMap<>(Route.class);
+
+    public AuthLinks() {
+        for (Route route : Route.values()) {
+            paths.put(route, resolvePath(route.handlerMethod));
+        }
+    }
+
+    public static RouteLink self(Route route) {
+        return new RouteLink(route, IanaLinkRelations.SELF);
+    }
+
+    public static RouteLink rel(Route route, String rel) {
+        return new RouteLink(route, LinkRelation.of(rel));
+    }
+
+    public String path(Route route) {
+        return paths.get(route);
+    }
+
+    public boolean omitted(HttpServletRequest request) {
+        return "true".equalsIgnoreCase(request.getHeader(OMIT_LINKS_HEADER));
+    }
+
+    /** Envuelve el contenido con los enlaces indicados, o sin enlaces si el cliente los omitió. */
+    public <T> EntityModel<T> model(HttpServletRequest request, T content, RouteLink... links) {
+        if (links.length == 0 || omitted(request)) {
+            return EntityModel.of(content);
+        }
+        String base = baseUrl(request);
+        Link[] rendered = new Link[links.length];
+        for (int i = 0; i < links.length; i++) {
+            rendered[i] = Link.of(base + paths.get(links[i].route()), links[i].rel());
+        }
+        return EntityModel.of(content, rendered);
+    }
+
+    // Mismo criterio que ServletUriComponentsBuilder.fromContextPath: con
+    // server.forward-headers-strategy=framework el request ya llega con los valores reenviados
+    static String baseUrl(HttpServletRequest request) {
+        String scheme = request.getScheme();
+        int port = request.getServerPort();
+        boolean defaultPort = port <= 0
+                || ("http".equals(scheme) && port == 80)
+                || ("https".equals(scheme) && port == 443);
+        StringBuilder base = new StringBuilder(64)
+                .append(scheme).append("://").append(request.getServerName());
+        if (!defaultPort) {
+            base.append(':').append(port);
+        }
+        return base.append(request.getContextPath()).toString();
+    }
+
+    private static String resolvePath(String handlerMethod) {
+        Method method = Arrays.stream(AuthController.class.getDeclaredMethods())
+                .filter(m -> m.getName().equals(handlerMethod))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("AuthController." + handlerMethod + " no existe"));
+        return MvcUriComponentsBuilder.fromMethod(UriComponentsBuilder.newInstance(), AuthController.class,
+                        method, new Object[method.getParameterCount()])
+                .build()
+                .getPath();
+    }
+}
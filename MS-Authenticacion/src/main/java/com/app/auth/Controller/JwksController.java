@@ -0,0 +1,31 @@
+package com.app.auth.Controller;
+
+import com.app.auth.config.jwt.SigningKeyRing;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "JWKS", description = "Claves públicas para verificar localmente los tokens emitidos")
+public class JwksController {
+    private final SigningKeyRing keyRing;
+
+    @Operation(
+            summary = "Conjunto de claves públicas (JWKS)",
+            description = "Claves públicas vigentes indexadas por kid, incluida la próxima clave a activar"
+    )
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(keyRing.getJwksJson());
+    }
+}
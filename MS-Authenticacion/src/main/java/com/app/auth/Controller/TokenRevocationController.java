@@ -0,0 +1,88 @@
+package com.app.auth.Controller;
+
+import com.app.auth.Dto.RevocationResponse;
+import com.app.auth.Dto.RevokeTokenRequest;
+import com.app.auth.Service.AuthService;
+import com.app.auth.Service.TokenRevocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/tokens")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ADMIN_PERMISSIONS')")
+@Tag(name = "Token revocation", description = "Revocación de access tokens antes de su expiración")
+public class TokenRevocationController {
+
+    private final AuthService authService;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Operation(
+            summary = "Revocar un token",
+            description = "Revoca un access token hasta su expiración, indicando el token completo o su jti",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Token revocado (o ya expirado)",
+                    content = @Content(schema = @Schema(implementation = RevocationResponse.class))
+            ),
+            @ApiResponse(responseCode = "400", description = "Falta el token o el jti, o expiresAt ya ha pasado")
+    })
+    @PostMapping("revoke")
+    public ResponseEntity<EntityModel<RevocationResponse>> revoke(@RequestBody RevokeTokenRequest request) {
+        String reason = StringUtils.hasText(request.getReason()) ? request.getReason() : "admin";
+        String message;
+        if (StringUtils.hasText(request.getToken())) {
+            message = authService.revokeToken(request.getToken(), reason) ? "Token revocado" : "El token ya había expirado";
+        } else if (StringUtils.hasText(request.getJti())) {
+            tokenRevocationService.revokeJti(request.getJti(), null, request.getExpiresAt(), reason);
+            message = "Token revocado";
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(EntityModel.of(RevocationResponse.builder().message(message).build()));
+    }
+
+    @Operation(
+            summary = "Revocar los tokens de un usuario",
+            description = "Revoca todos los access tokens emitidos hasta ahora para el usuario y sus refresh tokens",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tokens del usuario revocados",
+                    content = @Content(schema = @Schema(implementation = RevocationResponse.class))
+            )
+    })
+    @PostMapping("users/{username}/revoke")
+    public ResponseEntity<EntityModel<RevocationResponse>> revokeUser(@PathVariable String username,
+                                                                      @RequestBody(required = false) RevokeTokenRequest request) {
+        String reason = request != null && StringUtils.hasText(request.getReason()) ? request.getReason() : "admin";
+        int refreshTokens = tokenRevocationService.revokeUser(username, reason);
+        return ResponseEntity.ok(EntityModel.of(RevocationResponse.builder()
+                .message("Tokens de " + username + " revocados")
+                .revokedRefreshTokens(refreshTokens)
+                .build()));
+    }
+
+    @Operation(hidden = true)
+    @ExceptionHandler({BadCredentialsException.class, IllegalArgumentException.class})
+    public ResponseEntity<EntityModel<RevocationResponse>> handleBadRequest(RuntimeException e) {
+        return ResponseEntity.badRequest().body(EntityModel.of(RevocationResponse.builder().message(e.getMessage()).build()));
+    }
+}
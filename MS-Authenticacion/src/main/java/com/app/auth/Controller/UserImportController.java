@@ -0,0 +1,58 @@
+package com.app.auth.Controller;
+
+import com.app.auth.Dto.UserImportReport;
+import com.app.auth.Service.UserImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@Tag(name = "User import", description = "Alta masiva de usuarios")
+public class UserImportController {
+
+    public static final String NDJSON = "application/x-ndjson";
+    public static final String CSV = "text/csv";
+
+    private final UserImportService userImportService;
+
+    @Operation(
+            summary = "Importar usuarios",
+            description = "Importa usuarios desde NDJSON (un objeto {username,email,password} por línea) o CSV " +
+                    "con cabecera username,email,password. Las filas inválidas o duplicadas se informan sin abortar la importación",
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Resumen de la importación con los fallos por fila",
+                    content = @Content(schema = @Schema(implementation = UserImportReport.class))
+            ),
+            @ApiResponse(responseCode = "429", description = "Ya hay una importación en curso")
+    })
+    @PostMapping(value = "import", consumes = {NDJSON, CSV})
+    @PreAuthorize("hasAuthority('ADMIN_PERMISSIONS')")
+    public ResponseEntity<EntityModel<UserImportReport>> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        UserImportService.Format format = contentType.startsWith(CSV)
+                ? UserImportService.Format.CSV
+                : UserImportService.Format.NDJSON;
+        UserImportReport report = userImportService.importUsers(body, format);
+        return ResponseEntity.ok(EntityModel.of(report));
+    }
+}
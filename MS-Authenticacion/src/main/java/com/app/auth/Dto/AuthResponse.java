@@ -18,6 +18,8 @@ public class AuthResponse {
     private String tokenType;
     private Date issuedAt;
     private Date expiresAt;
+    private String refreshToken;
+    private Date refreshExpiresAt;
     private String username;
     private Set<Role> roles;
     private String message;
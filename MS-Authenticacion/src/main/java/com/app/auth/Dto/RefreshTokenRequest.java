@@ -0,0 +1,12 @@
+package com.app.auth.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RefreshTokenRequest {
+    private String refreshToken;
+}
@@ -0,0 +1,11 @@
+package com.app.auth.Dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class RevocationResponse {
+    private String message;
+    private Integer revokedRefreshTokens;
+}
@@ -0,0 +1,19 @@
+package com.app.auth.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/** Revocación administrativa: el token completo o, si no se tiene, su {@code jti}. */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class RevokeTokenRequest {
+    private String token;
+    private String jti;
+    // Solo con jti: exp del token; debe ser futuro y se limita a ahora + jwtExpirationMs
+    private Instant expiresAt;
+    private String reason;
+}
@@ -0,0 +1,19 @@
+package com.app.auth.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenBatchValidationResponse {
+    // Mismo orden que los tokens de la solicitud
+    private List<TokenVerdict> results;
+    private int validCount;
+    private int invalidCount;
+}
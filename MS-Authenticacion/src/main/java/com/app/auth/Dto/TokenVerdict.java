@@ -0,0 +1,19 @@
+package com.app.auth.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenVerdict {
+    private boolean valid;
+    private String subject;
+    private Date expiresAt;
+    private String message;
+}
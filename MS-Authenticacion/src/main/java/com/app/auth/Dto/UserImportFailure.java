@@ -0,0 +1,17 @@
+package com.app.auth.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportFailure {
+    // Número de línea en el fichero (1 = primera línea, incluida la cabecera CSV)
+    private long line;
+    private String username;
+    private String reason;
+}
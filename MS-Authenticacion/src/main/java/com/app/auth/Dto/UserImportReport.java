@@ -0,0 +1,21 @@
+package com.app.auth.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportReport {
+    private long total;
+    private long imported;
+    private long failed;
+    // Como mucho auth.import.maxReportedFailures; failuresTruncated indica que hubo más
+    private List<UserImportFailure> failures;
+    private boolean failuresTruncated;
+}
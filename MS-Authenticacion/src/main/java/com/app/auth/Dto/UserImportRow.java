@@ -0,0 +1,15 @@
+package com.app.auth.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Una línea del fichero de importación (NDJSON o CSV con cabecera username,email,password). */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportRow {
+    private String username;
+    private String email;
+    private String password;
+}
@@ -0,0 +1,151 @@
+package com.app.auth.Models;
+
+import com.app.auth.config.SecurityConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Siembra roles y permisos base. Sustituye a {@code RoleSeeder}/{@code PermissionSeeder}:
+ * en lugar de un {@code existsByName} y un {@code INSERT} por entrada antes de estar listo,
+ * se ejecuta después de {@link ApplicationReadyEvent} en un hilo aparte y hace un único
+ * {@code INSERT ... SELECT ... WHERE NOT EXISTS} por tabla. Si la marca de
+ * {@code seed_versions} ya está en {@link #CATALOG_VERSION} no hace nada más que leerla.
+ * Subir la versión al cambiar las listas.
+ *
+ * <p>Hasta que termina, su indicador de salud está DOWN y con él el grupo {@code readiness}:
+ * en una base nueva el balanceador no envía altas antes de que exista {@code ROLE_USER}. Si un
+ * intento falla (lock wait timeout, base caída al arrancar) se reintenta con espera creciente
+ * hasta {@code auth.seed.retryMaxMs}, sin límite de intentos: la instancia queda lista en cuanto
+ * la base responde, sin reiniciarla.
+ */
+@Component
+public class CatalogSeeder implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSeeder.class);
+
+    static final String SEED_NAME = "auth-catalog";
+    static final int CATALOG_VERSION = 3;
+    static final List<String> ROLES = List.of("ROLE_USER", "ROLE_MODERATOR", "ROLE_ADMIN");
+    static final List<String> PERMISSIONS = List.of("READ_PERMISSIONS", "ADMIN_PERMISSIONS", "WRITE_PERMISSIONS",
+            SecurityConfig.TOKEN_INTROSPECTION, SecurityConfig.METRICS_SCRAPE);
+
+    private static final String CREATE_MARKER_TABLE =
+            "CREATE TABLE IF NOT EXISTS seed_versions (" +
+            "name VARCHAR(64) NOT NULL PRIMARY KEY, version INT NOT NULL, applied_at TIMESTAMP NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final long retryInitialMs;
+    private final long retryMaxMs;
+    private volatile boolean seeded;
+
+    public CatalogSeeder(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${auth.seed.enabled:true}") boolean enabled,
+                         @Value("${auth.seed.retryInitialMs:1000}") long retryInitialMs,
+                         @Value("${auth.seed.retryMaxMs:30000}") long retryMaxMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.retryInitialMs = retryInitialMs;
+        this.retryMaxMs = retryMaxMs;
+        this.seeded = !enabled;
+    }
+
+    @Override
+    public Health health() {
+        return seeded ? Health.up().build() : Health.down().withDetail("catalogVersion", CATALOG_VERSION).build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedInBackground() {
+        if (enabled) {
+            Thread.ofVirtual().name("catalog-seeder").start(this::seedUntilDone);
+        }
+    }
+
+    void seedUntilDone() {
+        long delayMs = retryInitialMs;
+        while (!seeded) {
+            seed();
+            if (seeded) {
+                return;
+            }
+            logger.warn("Nuevo intento de sembrar el catálogo en {} ms", delayMs);
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            delayMs = Math.min(delayMs * 2, retryMaxMs);
+        }
+    }
+
+    public void seed() {
+        long start = System.nanoTime();
+        try {
+            Integer current = currentVersion();
+            if (current != null && current >= CATALOG_VERSION) {
+                logger.info("Catálogo de roles/permisos al día (versión {}), siembra omitida", current);
+                seeded = true;
+                return;
+            }
+            int inserted = transactionTemplate.execute(status -> {
+                // Bloquea la marca: con varias réplicas arrancando solo una siembra a la vez
+                Integer locked = jdbcTemplate.queryForObject(
+                        "SELECT version FROM seed_versions WHERE name = ? FOR UPDATE", Integer.class, SEED_NAME);
+                if (locked != null && locked >= CATALOG_VERSION) {
+                    return 0;
+                }
+                int rows = insertMissing("roles", ROLES) + insertMissing("permissions", PERMISSIONS);
+                jdbcTemplate.update("UPDATE seed_versions SET version = ?, applied_at = CURRENT_TIMESTAMP WHERE name = ?",
+                        CATALOG_VERSION, SEED_NAME);
+                return rows;
+            });
+            seeded = true;
+            logger.info("Catálogo sembrado a la versión {}: {} filas nuevas en {} ms",
+                    CATALOG_VERSION, inserted, (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Sigue DOWN: sin catálogo la instancia no debe recibir tráfico
+            logger.error("No se pudo sembrar el catálogo de roles/permisos", e);
+        }
+    }
+
+    private Integer currentVersion() {
+        jdbcTemplate.execute(CREATE_MARKER_TABLE);
+        List<Integer> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM seed_versions WHERE name = ?", Integer.class, SEED_NAME);
+        if (!versions.isEmpty()) {
+            return versions.get(0);
+        }
+        try {
+            jdbcTemplate.update("INSERT INTO seed_versions (name, version) VALUES (?, 0)", SEED_NAME);
+        } catch (DataIntegrityViolationException e) {
+            // Otra réplica creó la marca a la vez
+        }
+        return null;
+    }
+
+    /** Un solo INSERT por tabla con las entradas que aún no existen (name no es único en el esquema). */
+    private int insertMissing(String table, List<String> names) {
+        // CONCAT tipa el parámetro como texto: H2 no infiere el tipo de un "?" suelto en una tabla derivada
+        String values = String.join(" UNION ALL ", Collections.nCopies(names.size(), "SELECT CONCAT(?, '') AS name"));
+        String sql = "INSERT INTO " + table + " (name) SELECT v.name FROM (" + values + ") v " +
+                "WHERE NOT EXISTS (SELECT 1 FROM " + table + " t WHERE t.name = v.name)";
+        return jdbcTemplate.update(sql, names.toArray());
+    }
+}
@@ -0,0 +1,49 @@
+package com.app.auth.Models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Refresh token opaco. Solo se persiste el SHA-256 del token; todos los tokens obtenidos
+ * por rotación a partir de un mismo login comparten {@code familyId}.
+ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "ux_refresh_tokens_hash", columnList = "token_hash", unique = true),
+        @Index(name = "ix_refresh_tokens_family", columnList = "family_id"),
+        @Index(name = "ix_refresh_tokens_username", columnList = "username"),
+        @Index(name = "ix_refresh_tokens_expires", columnList = "expires_at")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "username", nullable = false)
+    private String username;
+
+    @Column(name = "issued_at", nullable = false)
+    private Instant issuedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    // Se marca al rotar (con replacedBy) o al revocar la familia
+    @Column(name = "revoked_at")
+    private Instant revokedAt;
+
+    @Column(name = "replaced_by", length = 64)
+    private String replacedBy;
+}
@@ -0,0 +1,42 @@
+package com.app.auth.Models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Entrada de la lista de revocación. La clave es {@code jti:<id>} para un access token
+ * concreto o {@code user:<username>} para todos los tokens de un usuario emitidos hasta
+ * {@code issuedBefore}. La fila deja de importar en {@code expiresAt}, cuando ya no puede
+ * quedar ningún token afectado sin caducar.
+ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "ix_revoked_tokens_expires", columnList = "expires_at")
+})
+public class RevokedToken {
+    @Id
+    @Column(name = "revocation_key", length = 191)
+    private String key;
+
+    @Column(name = "username")
+    private String username;
+
+    // Solo en revocaciones por usuario: tokens con iat <= issuedBefore
+    @Column(name = "issued_before")
+    private Instant issuedBefore;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+
+    @Column(name = "reason")
+    private String reason;
+}
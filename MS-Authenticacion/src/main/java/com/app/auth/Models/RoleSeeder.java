@@ -1,30 +0,0 @@
-package com.app.auth.Models;
-
-import com.app.auth.Repository.RoleRepository;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.stereotype.Component;
-
-import java.util.Arrays;
-import java.util.List;
-
-@Component
-public class RoleSeeder implements CommandLineRunner {
-
-    @Autowired
-    private RoleRepository roleRepository;
-
-    @Override
-    public void run(String... args) {
-        List<String> roles = Arrays.asList("ROLE_USER", "ROLE_MODERATOR", "ROLE_ADMIN");
-
-        for (String roleName : roles) {
-            if (!roleRepository.existsByName(roleName)) {
-                Role role = new Role();
-                role.setName(roleName);
-                roleRepository.save(role);
-                System.out.println("Rol insertado: " + roleName);
-            }
-        }
-    }
-}
@@ -9,6 +9,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.security.Timestamp;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -19,16 +20,23 @@ import java.util.stream.Collectors;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "users")
+@Table(name = "users", uniqueConstraints = {
+        @UniqueConstraint(name = User.USERNAME_CONSTRAINT, columnNames = "username"),
+        @UniqueConstraint(name = User.EMAIL_CONSTRAINT, columnNames = "email")
+})
+@EntityListeners(UserCacheInvalidationListener.class)
 public class User implements UserDetails {
+    public static final String USERNAME_CONSTRAINT = "uk_users_username";
+    public static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "username", unique = true, nullable = false)
+    @Column(name = "username", nullable = false)
     private String username;
 
-    @Column(name = "email", unique = true, nullable = false)
+    @Column(name = "email", nullable = false)
     private String email;
 
     private String password;
@@ -51,6 +59,10 @@ public class User implements UserDetails {
     private boolean locked = false;
     private int failedLoginAttempts = 0;
 
+    // Bloqueo temporal por intentos fallidos (LoginAttemptService); locked queda para bloqueos administrativos
+    @Column(name = "locked_until")
+    private Instant lockedUntil;
+
     // ========== NUEVOS CAMPOS PARA EL PERFIL ==========
 
     @Column(name = "display_name")
@@ -99,7 +111,7 @@ public class User implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return !locked;
+        return !locked && (lockedUntil == null || lockedUntil.isBefore(Instant.now()));
     }
 
     @Override
@@ -0,0 +1,36 @@
+package com.app.auth.Models;
+
+import com.app.auth.Service.UserDetailsCache;
+import com.app.auth.Service.UserRegistrationService;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Invalida la caché de usuarios cuando se modifica o elimina un {@link User} (bloqueo,
+ * deshabilitación, borrado) o un {@link Role}, lo que cambia los permisos de todos sus usuarios.
+ */
+@Component
+public class UserCacheInvalidationListener {
+
+    private final UserDetailsCache userDetailsCache;
+    private final UserRegistrationService userRegistrationService;
+
+    public UserCacheInvalidationListener(@Lazy UserDetailsCache userDetailsCache,
+                                         @Lazy UserRegistrationService userRegistrationService) {
+        this.userDetailsCache = userDetailsCache;
+        this.userRegistrationService = userRegistrationService;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        if (entity instanceof User user) {
+            userDetailsCache.evict(user.getUsername());
+        } else if (entity instanceof Role) {
+            userDetailsCache.evictAll();
+            userRegistrationService.evictDefaultRole();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.app.auth.Models;
+
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Copia inmutable de los datos de seguridad de un {@link User}. Es lo que guarda la
+ * caché de {@code CustomUserDetailsService}: no arrastra la sesión de Hibernate ni
+ * el grafo de roles y permisos.
+ */
+@Getter
+public final class UserSnapshot implements UserDetails {
+
+    private final Long id;
+    private final String username;
+    private final String password;
+    private final boolean enabled;
+    private final boolean locked;
+    private final Instant lockedUntil;
+    private final List<String> roleNames;
+    private final List<GrantedAuthority> authorities;
+
+    private UserSnapshot(User user) {
+        this.id = user.getId();
+        this.username = user.getUsername();
+        this.password = user.getPassword();
+        this.enabled = user.isEnabled();
+        this.locked = user.isLocked();
+        this.lockedUntil = user.getLockedUntil();
+        this.roleNames = user.getRoles().stream()
+                .map(Role::getName)
+                .toList();
+        this.authorities = user.getRoles().stream()
+                .flatMap(role -> role.getPermissions().stream())
+                .map(Permission::getName)
+                .distinct()
+                .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                .toList();
+    }
+
+    public static UserSnapshot of(User user) {
+        return new UserSnapshot(user);
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return !locked && (lockedUntil == null || lockedUntil.isBefore(Instant.now()));
+    }
+}
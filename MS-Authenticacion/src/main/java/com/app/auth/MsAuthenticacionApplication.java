@@ -1,13 +1,22 @@
 package com.app.auth;
 
+import com.app.auth.config.StartupPhaseLogger;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class MsAuthenticacionApplication {
 
     public static void main(String[] args) {
-        SpringApplication.run(MsAuthenticacionApplication.class, args);
+        SpringApplication application = new SpringApplication(MsAuthenticacionApplication.class);
+        // Pasos de arranque en /actuator/startup y resumen por fases en el log
+        BufferingApplicationStartup startup = new BufferingApplicationStartup(10_000);
+        application.setApplicationStartup(startup);
+        application.addListeners(new StartupPhaseLogger(startup));
+        application.run(args);
     }
 
 }
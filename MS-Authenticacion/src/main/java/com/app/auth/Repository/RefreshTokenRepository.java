@@ -0,0 +1,32 @@
+package com.app.auth.Repository;
+
+import com.app.auth.Models.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /** Marca el token como usado solo si nadie lo ha rotado antes; devuelve 0 si perdió la carrera. */
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now, r.replacedBy = :replacedBy " +
+            "where r.id = :id and r.revokedAt is null")
+    int markRotated(@Param("id") Long id, @Param("replacedBy") String replacedBy, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now where r.familyId = :familyId and r.revokedAt is null")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revokedAt = :now where r.username = :username and r.revokedAt is null")
+    int revokeAllForUser(@Param("username") String username, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,33 @@
+package com.app.auth.Repository;
+
+import com.app.auth.Models.RevokedToken;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /** Siempre del primario: un "no revocado" leído de una réplica retrasada quedaría en la caché. */
+    @Override
+    @Transactional
+    Optional<RevokedToken> findById(String key);
+
+    /** Claves vigentes para reconstruir el filtro de Bloom; requiere transacción abierta. */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.key from RevokedToken r where r.expiresAt > :now")
+    Stream<String> streamActiveKeys(@Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -2,14 +2,25 @@ package com.app.auth.Repository;
 
 import com.app.auth.Models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User,Long> {
+    // Lectura-escritura para que, con réplica, vaya al primario: el login y la caché de
+    // UserDetails no deben ver una contraseña o un bloqueo anteriores a la última escritura
+    @Transactional
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
 
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username")
+    int updatePassword(@Param("username") String username, @Param("password") String password);
 }
@@ -3,13 +3,18 @@ package com.app.auth.Service;
 
 import com.app.auth.Dto.AuthResponse;
 import com.app.auth.Dto.LoginRequest;
+import com.app.auth.Dto.RefreshTokenRequest;
 import com.app.auth.Dto.RegisterRequest;
-import com.app.auth.Exception.UserAlreadyExistsException;
-import com.app.auth.Models.Role;
+import com.app.auth.Dto.TokenBatchValidationResponse;
+import com.app.auth.Dto.TokenVerdict;
 import com.app.auth.Models.User;
-import com.app.auth.Repository.RoleRepository;
 import com.app.auth.Repository.UserRepository;
+import com.app.auth.config.AuthPhaseMetrics;
+import com.app.auth.config.AuthPhaseMetrics.Operation;
+import com.app.auth.config.AuthPhaseMetrics.Outcome;
+import com.app.auth.config.AuthPhaseMetrics.Phase;
 import com.app.auth.config.jwt.JwtUtils;
+import com.app.auth.config.jwt.VerifiedToken;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.MalformedJwtException;
@@ -17,23 +22,26 @@ import org.hibernate.service.spi.ServiceException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import javax.management.relation.RoleNotFoundException;
 import java.security.SignatureException;
-import java.util.Collections;
-import java.util.Date;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 
 @Service
@@ -41,8 +49,6 @@ import java.util.Objects;
 public class AuthService {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
-    @Autowired
-    private RoleRepository roleRepository;
     @Autowired
     private UserRepository userRepository;
     @Autowired
@@ -51,11 +57,34 @@ public class AuthService {
     private  PasswordEncoder passwordEncoder;
     @Autowired
     private AuthenticationManager authenticationManager;
+    @Autowired
+    private TokenValidationCache tokenValidationCache;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private UserDetailsService userDetailsService;
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+    @Autowired
+    private UserRegistrationService userRegistrationService;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+    @Autowired
+    private AuthPhaseMetrics phaseMetrics;
+    @Autowired
+    @Qualifier("tokenValidationExecutor")
+    private ExecutorService tokenValidationExecutor;
+    @Value("${auth.batch.maxTokens:1024}")
+    private int maxBatchTokens;
+    @Value("${auth.batch.chunkSize:32}")
+    private int batchChunkSize;
     @Value("${auth.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
     public AuthResponse login(LoginRequest request) {
+        AuthPhaseMetrics.Trace trace = phaseMetrics.trace(Operation.LOGIN);
         try {
+            trace.phase(Phase.AUTHENTICATE);
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             request.getUsername(),
@@ -64,45 +93,86 @@ public class AuthService {
             );
 
             UserDetails user = (UserDetails) authentication.getPrincipal();
+            loginAttemptService.loginSucceeded(user.getUsername());
 
             Date issuedAt = new Date();
             Date expiration = new Date(System.currentTimeMillis() + jwtExpirationMs);
+            trace.phase(Phase.TOKEN_SIGN);
             String token = jwtService.getToken(user);
+            trace.phase(Phase.REFRESH_ISSUE);
+            RefreshTokenService.IssuedRefreshToken refreshToken = refreshTokenService.issue(user.getUsername());
+            trace.phase(Phase.USER_LOOKUP);
             User userFind= userRepository.findByUsername(user.getUsername())
                     .orElseThrow(()-> new RuntimeException("Usuario no encontrado"));
+            trace.success();
 
             return AuthResponse.builder()
                     .issuedAt(issuedAt)
                     .expiresAt(expiration)
                     .token(token)
+                    .refreshToken(refreshToken.token())
+                    .refreshExpiresAt(Date.from(refreshToken.expiresAt()))
                     .tokenType("Bearer")
                     .roles(userFind.getRoles())
                     .username(userFind.getUsername())
                     .build();
 
-        } catch (BadCredentialsException e) {
+        } catch (BadCredentialsException | UsernameNotFoundException e) {
+            // Usuario desconocido y contraseña errónea se miden por separado pero responden igual
+            trace.fail(e);
+            // Solo cuentan las cuentas que existen (hideUserNotFoundExceptions=false): nombres
+            // inventados no deben ocupar sitio en los contadores del bloqueo
+            if (e instanceof BadCredentialsException) {
+                loginAttemptService.loginFailed(request.getUsername());
+            }
             throw new ResponseStatusException(
                     HttpStatus.UNAUTHORIZED,
                     "Invalid username or password"
             );
+        } catch (LockedException e) {
+            trace.fail(e);
+            throw new ResponseStatusException(HttpStatus.LOCKED, e.getMessage());
+        } catch (RuntimeException e) {
+            trace.fail(e);
+            throw e;
         }
     }
 
-    public AuthResponse register(RegisterRequest request) {
-
-        Role userRole = roleRepository.findByName("ROLE_USER")
-                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+    /**
+     * Canjea un refresh token por un access token nuevo y el siguiente refresh token de la
+     * familia. No verifica contraseña: el usuario sale de la caché de {@link UserDetailsService}
+     * y solo se comprueba que siga habilitado y sin bloquear.
+     */
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.IssuedRefreshToken refreshToken =
+                refreshTokenService.rotate(request != null ? request.getRefreshToken() : null);
 
-        User user= User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword()))
-                .roles(Collections.singleton(userRole))
+        UserDetails user;
+        try {
+            user = userDetailsService.loadUserByUsername(refreshToken.username());
+        } catch (UsernameNotFoundException e) {
+            throw new BadCredentialsException("Usuario no encontrado");
+        }
+        if (!user.isEnabled() || !user.isAccountNonLocked()) {
+            refreshTokenService.revokeAllForUser(user.getUsername());
+            throw new BadCredentialsException("Usuario bloqueado o deshabilitado");
+        }
 
-                .enabled(true)
+        Date issuedAt = new Date();
+        Date expiration = new Date(issuedAt.getTime() + jwtExpirationMs);
+        return AuthResponse.builder()
+                .token(jwtService.getToken(user))
+                .tokenType("Bearer")
+                .issuedAt(issuedAt)
+                .expiresAt(expiration)
+                .refreshToken(refreshToken.token())
+                .refreshExpiresAt(Date.from(refreshToken.expiresAt()))
+                .username(user.getUsername())
                 .build();
+    }
 
-        userRepository.save(user);
+    public AuthResponse register(RegisterRequest request) {
+        User user = userRegistrationService.register(registerUser(request));
         Date issuedAt = new Date();
         Date expiration = new Date(System.currentTimeMillis() + jwtExpirationMs);
         String token = jwtService.getToken(user);
@@ -113,25 +183,19 @@ public class AuthService {
                 .token(token)
                 .build();
     }
+
+    /** Construye el usuario con la contraseña ya codificada; no accede a la base de datos. */
     public User registerUser(RegisterRequest userRequest) {
         // Validación de entrada
         if (userRequest == null) {
             throw new IllegalArgumentException("RegisterRequest cannot be null");
         }
 
-        Role roleDefault = null;
-        try {
-            roleDefault = roleRepository.findByName("ROLE_USER")
-                    .orElseThrow(() -> new RoleNotFoundException("ROLE_USER not found"));
-        } catch (RoleNotFoundException e) {
-            throw new RuntimeException(e);
-        }
-
         return User.builder()
                 .username(userRequest.getUsername())
                 .email(userRequest.getEmail())
                 .password(passwordEncoder.encode(userRequest.getPassword()))
-                .roles(Collections.singleton(roleDefault))
+                .roles(new HashSet<>(Set.of(userRegistrationService.defaultRole())))
                 .locked(false)
                 .enabled(true)
                 .build();
@@ -139,64 +203,183 @@ public class AuthService {
 
     public AuthResponse createUser(RegisterRequest request) {
         Objects.requireNonNull(request, "RegisterRequest cannot be null");
-        validateUserDoesNotExist(request.getUsername(), request.getEmail());
+        AuthPhaseMetrics.Trace trace = phaseMetrics.trace(Operation.CREATE_USER);
         try {
-            User savedUser = registerAndSaveUser(request);
-            return buildAuthResponse(savedUser);
+            User savedUser = registerAndSaveUser(request, trace);
+            AuthResponse response = buildAuthResponse(savedUser, trace);
+            trace.success();
+            return response;
 
         } catch (JwtException e) {
+            trace.fail(e);
             logger.error("JWT generation failed for user: {}", request.getUsername(), e);
             throw new ServiceException("Registration failed: could not generate access token", e);
         } catch (DataAccessException e) {
+            trace.fail(e);
             logger.error("Database error during user registration for: {}", request.getUsername(), e);
             throw new ServiceException("Registration failed: database error", e);
-        } catch (ServiceException e) {
+        } catch (ServiceException | ResponseStatusException e) {
+            // ResponseStatusException: catálogo aún sin sembrar o pool de hashing saturado (503), lo responde AuthController tal cual
+            trace.fail(e);
             throw e;
         } catch (Exception e) {
+            trace.fail(e);
             logger.error("Unexpected error during user registration", e);
             throw new ServiceException("Registration failed due to unexpected error", e);
         }
     }
 
-    private void validateUserDoesNotExist(String username, String email) {
-        if (userRepository.existsByUsername(username)) {
-            throw new UserAlreadyExistsException("Username already exists: " + username);
-        }
-
-        if (userRepository.existsByEmail(email)) {
-            throw new UserAlreadyExistsException("Email already exists: " + email);
-        }
-    }
-
-    private User registerAndSaveUser(RegisterRequest request) {
+    private User registerAndSaveUser(RegisterRequest request, AuthPhaseMetrics.Trace trace) {
+        // BCrypt antes de tocar la base de datos; la unicidad la resuelven los índices
+        trace.phase(Phase.PASSWORD_HASH);
         User user = registerUser(request);
-        return userRepository.save(user);
+        trace.phase(Phase.PERSIST);
+        return userRegistrationService.register(user);
     }
 
-    private AuthResponse buildAuthResponse(User user) {
+    private AuthResponse buildAuthResponse(User user, AuthPhaseMetrics.Trace trace) {
         Date issuedAt = new Date();
         Date expiration = new Date(System.currentTimeMillis() + jwtExpirationMs);
+        trace.phase(Phase.TOKEN_SIGN);
         String token = jwtService.getToken(user);
+        trace.phase(Phase.REFRESH_ISSUE);
+        RefreshTokenService.IssuedRefreshToken refreshToken = refreshTokenService.issue(user.getUsername());
 
         return AuthResponse.builder()
                 .token(token)
                 .tokenType("Bearer")
                 .issuedAt(issuedAt)
                 .expiresAt(expiration)
+                .refreshToken(refreshToken.token())
+                .refreshExpiresAt(Date.from(refreshToken.expiresAt()))
                 .username(user.getUsername())
                 .roles(user.getRoles())
                 .build();
     }
 
-    public void validateToken(String token) {
+    public VerifiedToken validateToken(String token) {
+        AuthPhaseMetrics.Trace trace = phaseMetrics.trace(Operation.VALIDATE_TOKEN);
+        trace.phase(Phase.TOKEN_VERIFY);
+        VerifiedToken verified = verifySignature(token, trace);
+        trace.phase(Phase.REVOCATION_CHECK);
+        if (tokenRevocationService.isRevoked(verified)) {
+            trace.finish(Outcome.REVOKED);
+            throw new BadCredentialsException("Token revocado");
+        }
+        trace.success();
+        return verified;
+    }
+
+    /**
+     * Cierra la sesión: revoca el access token hasta su exp y la familia del refresh token.
+     * Un access token ya expirado no necesita revocarse.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken == null && refreshToken == null) {
+            throw new BadCredentialsException("Se requiere un access token o un refresh token");
+        }
+        refreshTokenService.revoke(refreshToken);
+        if (accessToken != null) {
+            VerifiedToken verified;
+            try {
+                verified = tokenValidationCache.verify(accessToken);
+            } catch (ExpiredJwtException e) {
+                return;
+            } catch (JwtException | IllegalArgumentException e) {
+                throw new BadCredentialsException("Token inválido");
+            }
+            tokenRevocationService.revoke(verified, "logout");
+        }
+    }
+
+    /** Revocación administrativa de un token propio; devuelve {@code false} si ya había expirado. */
+    public boolean revokeToken(String token, String reason) {
+        VerifiedToken verified;
         try {
-            jwtService.validateToken(token); // Usa el nuevo método
+            verified = tokenValidationCache.verify(token);
         } catch (ExpiredJwtException e) {
+            return false;
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BadCredentialsException("Token inválido");
+        }
+        tokenRevocationService.revoke(verified, reason);
+        return true;
+    }
+
+    private VerifiedToken verifySignature(String token, AuthPhaseMetrics.Trace trace) {
+        try {
+            return tokenValidationCache.verify(token);
+        } catch (ExpiredJwtException e) {
+            trace.fail(e);
             throw new BadCredentialsException("Token expirado");
         } catch (MalformedJwtException e) {
+            trace.fail(e);
             throw new BadCredentialsException("Token inválido");
         } catch (IllegalArgumentException e) {
+            trace.fail(e);
             throw new BadCredentialsException("Token vacío o mal formado");
+        } catch (JwtException e) {
+            trace.fail(e);
+            throw new BadCredentialsException("Token inválido");
+        }
+    }
+
+    public TokenBatchValidationResponse validateTokens(List<String> tokens) {
+        if (tokens == null || tokens.isEmpty()) {
+            throw new IllegalArgumentException("La lista de tokens no puede estar vacía");
+        }
+        if (tokens.size() > maxBatchTokens) {
+            throw new IllegalArgumentException("Máximo " + maxBatchTokens + " tokens por solicitud");
+        }
+
+        TokenVerdict[] verdicts = new TokenVerdict[tokens.size()];
+        if (tokens.size() <= batchChunkSize) {
+            validateRange(tokens, verdicts, 0, tokens.size());
+        } else {
+            // Trozos en lugar de una tarea por token: menos coordinación para lotes grandes
+            List<CompletableFuture<Void>> chunks = new ArrayList<>();
+            for (int from = 0; from < tokens.size(); from += batchChunkSize) {
+                int start = from;
+                int end = Math.min(from + batchChunkSize, tokens.size());
+                chunks.add(CompletableFuture.runAsync(
+                        () -> validateRange(tokens, verdicts, start, end), tokenValidationExecutor));
+            }
+            CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new)).join();
+        }
+
+        int valid = 0;
+        for (TokenVerdict verdict : verdicts) {
+            if (verdict.isValid()) {
+                valid++;
+            }
+        }
+        return TokenBatchValidationResponse.builder()
+                .results(Arrays.asList(verdicts))
+                .validCount(valid)
+                .invalidCount(verdicts.length - valid)
+                .build();
+    }
+
+    private void validateRange(List<String> tokens, TokenVerdict[] verdicts, int from, int to) {
+        for (int i = from; i < to; i++) {
+            verdicts[i] = toVerdict(tokens.get(i));
+        }
+    }
+
+    private TokenVerdict toVerdict(String token) {
+        try {
+            VerifiedToken verified = validateToken(token);
+            return TokenVerdict.builder()
+                    .valid(true)
+                    .subject(verified.getSubject())
+                    .expiresAt(verified.getExpiration())
+                    .message("Token válido")
+                    .build();
+        } catch (BadCredentialsException e) {
+            return TokenVerdict.builder()
+                    .valid(false)
+                    .message(e.getMessage())
+                    .build();
         }
     }
 
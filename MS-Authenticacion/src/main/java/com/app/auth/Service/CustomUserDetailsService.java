@@ -1,24 +1,47 @@
 package com.app.auth.Service;
 
 
+import com.app.auth.Models.UserSnapshot;
 import com.app.auth.Repository.UserRepository;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    public CustomUserDetailsService(UserRepository userRepository, UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        return userDetailsCache.get(username, this::loadSnapshot);
+    }
+
+    /**
+     * Lo invoca {@code DaoAuthenticationProvider} tras un login correcto cuando el hash
+     * guardado no usa el algoritmo o el coste BCrypt actuales.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePassword(user.getUsername(), newPassword);
+        // La actualización JPQL no pasa por el listener de la entidad
+        userDetailsCache.evict(user.getUsername());
+        return loadUserByUsername(user.getUsername());
+    }
+
+    private UserSnapshot loadSnapshot(String username) {
         return userRepository.findByUsername(username)
+                .map(UserSnapshot::of)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + username));
     }
 }
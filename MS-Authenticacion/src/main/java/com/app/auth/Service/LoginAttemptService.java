@@ -0,0 +1,263 @@
+package com.app.auth.Service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Contadores de logins fallidos en memoria, con ventana deslizante por usuario y repartidos
+ * en franjas con su propio lock para no serializar todos los logins en un único monitor.
+ * La base de datos ({@code failed_login_attempts}, {@code locked_until}) se actualiza por
+ * lotes cada {@code auth.lockout.flushIntervalMs}, y de inmediato cuando una cuenta cruza el
+ * umbral de bloqueo: un ataque de fuerza bruta no se convierte en un UPDATE por intento.
+ */
+@Service
+public class LoginAttemptService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginAttemptService.class);
+    private static final int STRIPES = 64;
+    private static final String FLUSH_SQL =
+            "UPDATE users SET failed_login_attempts = ?, locked_until = ? WHERE username = ?";
+
+    /** Fallos dentro de la ventana, como registro circular de instantes. */
+    private static final class AttemptWindow {
+        final long[] failures;
+        int size;
+        int next;
+        long lockedUntil;
+
+        AttemptWindow(int capacity) {
+            this.failures = new long[capacity];
+        }
+
+        long lastFailure() {
+            return failures[(next + failures.length - 1) % failures.length];
+        }
+
+        int countSince(long from) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (failures[i] >= from) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private record PendingWrite(int failedAttempts, Instant lockedUntil, boolean lockChanged) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserDetailsCache userDetailsCache;
+    private final int maxFailures;
+    private final long windowMs;
+    private final long lockDurationMs;
+    private final int flushBatchSize;
+    private final int maxEntriesPerStripe;
+
+    private final Object[] locks = new Object[STRIPES];
+    private final List<Map<String, AttemptWindow>> stripes = new ArrayList<>(STRIPES);
+    private final ConcurrentMap<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService flushExecutor =
+            Executors.newSingleThreadExecutor(new CustomizableThreadFactory("login-attempts-flush-"));
+
+    public LoginAttemptService(JdbcTemplate jdbcTemplate,
+                               UserDetailsCache userDetailsCache,
+                               @Value("${auth.lockout.maxFailures:5}") int maxFailures,
+                               @Value("${auth.lockout.windowSeconds:900}") long windowSeconds,
+                               @Value("${auth.lockout.lockDurationSeconds:900}") long lockDurationSeconds,
+                               @Value("${auth.lockout.flushBatchSize:500}") int flushBatchSize,
+                               @Value("${auth.lockout.maxEntries:100000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userDetailsCache = userDetailsCache;
+        this.maxFailures = maxFailures;
+        this.windowMs = windowSeconds * 1000;
+        this.lockDurationMs = lockDurationSeconds * 1000;
+        this.flushBatchSize = flushBatchSize;
+        this.maxEntriesPerStripe = Math.max(1, maxEntries / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+            stripes.add(new HashMap<>());
+        }
+    }
+
+    /** Bloqueo vigente según los contadores en memoria; no consulta la base de datos. */
+    public boolean isLocked(String username) {
+        if (username == null) {
+            return false;
+        }
+        int stripe = stripe(username);
+        long now = System.currentTimeMillis();
+        synchronized (locks[stripe]) {
+            AttemptWindow window = stripes.get(stripe).get(username);
+            return window != null && window.lockedUntil > now;
+        }
+    }
+
+    public void loginFailed(String username) {
+        if (username == null) {
+            return;
+        }
+        int stripe = stripe(username);
+        long now = System.currentTimeMillis();
+        PendingWrite write;
+        synchronized (locks[stripe]) {
+            Map<String, AttemptWindow> windows = stripes.get(stripe);
+            AttemptWindow window = windows.get(username);
+            if (window == null) {
+                if (windows.size() >= maxEntriesPerStripe) {
+                    purgeStripe(windows, now);
+                }
+                if (windows.size() >= maxEntriesPerStripe) {
+                    // Franja llena: dejar de contar permitiría llenarla para desactivar el bloqueo
+                    // de una cuenta, así que se descarta la ventana que menos cerca está de bloquear
+                    evictWeakest(windows, now);
+                }
+                window = new AttemptWindow(maxFailures);
+                windows.put(username, window);
+            }
+            window.failures[window.next] = now;
+            window.next = (window.next + 1) % window.failures.length;
+            window.size = Math.min(window.size + 1, window.failures.length);
+
+            int failures = window.countSince(now - windowMs);
+            boolean crossed = failures >= maxFailures && window.lockedUntil <= now;
+            if (crossed) {
+                window.lockedUntil = now + lockDurationMs;
+            }
+            Instant lockedUntil = window.lockedUntil > now ? Instant.ofEpochMilli(window.lockedUntil) : null;
+            write = new PendingWrite(failures, lockedUntil, crossed);
+        }
+        pending.merge(username, write, (old, neu) ->
+                new PendingWrite(neu.failedAttempts(), neu.lockedUntil(), old.lockChanged() || neu.lockChanged()));
+
+        if (write.lockChanged()) {
+            logger.warn("Cuenta {} bloqueada hasta {} tras {} intentos fallidos",
+                    username, write.lockedUntil(), write.failedAttempts());
+        }
+        if (write.lockChanged() || pending.size() >= flushBatchSize) {
+            requestFlush();
+        }
+    }
+
+    public void loginSucceeded(String username) {
+        if (username == null) {
+            return;
+        }
+        int stripe = stripe(username);
+        AttemptWindow removed;
+        synchronized (locks[stripe]) {
+            removed = stripes.get(stripe).remove(username);
+        }
+        // Solo hay algo que escribir si este nodo había registrado fallos
+        if (removed != null) {
+            pending.put(username, new PendingWrite(0, null, removed.lockedUntil > 0));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auth.lockout.flushIntervalMs:5000}")
+    public void scheduledFlush() {
+        flush();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < STRIPES; i++) {
+            synchronized (locks[i]) {
+                purgeStripe(stripes.get(i), now);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdown();
+        flush();
+    }
+
+    private void requestFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+    }
+
+    // ReentrantLock y no synchronized: el batch JDBC bloquea y con hilos virtuales un monitor
+    // retenido durante la espera fija el hilo a su carrier
+    void flush() {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Map<String, PendingWrite> drained = new HashMap<>();
+            List<Object[]> batch = new ArrayList<>(pending.size());
+            List<String> lockChanged = new ArrayList<>();
+            for (String username : new ArrayList<>(pending.keySet())) {
+                PendingWrite write = pending.remove(username);
+                if (write == null) {
+                    continue;
+                }
+                drained.put(username, write);
+                batch.add(new Object[]{
+                        write.failedAttempts(),
+                        write.lockedUntil() != null ? Timestamp.from(write.lockedUntil()) : null,
+                        username});
+                if (write.lockChanged()) {
+                    lockChanged.add(username);
+                }
+            }
+            try {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+            } catch (RuntimeException e) {
+                logger.error("No se pudieron guardar {} contadores de login: {}", batch.size(), e.getMessage());
+                // Se reintentan en el siguiente flush salvo que ya haya un valor más reciente
+                drained.forEach(pending::putIfAbsent);
+                return;
+            }
+            lockChanged.forEach(userDetailsCache::evict);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void purgeStripe(Map<String, AttemptWindow> windows, long now) {
+        long from = now - windowMs;
+        windows.values().removeIf(w -> w.lockedUntil <= now && w.countSince(from) == 0);
+    }
+
+    /**
+     * Saca la ventana no bloqueada con menos fallos en curso y, a igualdad, la de fallo más antiguo.
+     * Las bloqueadas solo salen si no queda otra, empezando por la que antes expira.
+     */
+    private void evictWeakest(Map<String, AttemptWindow> windows, long now) {
+        long from = now - windowMs;
+        Comparator<Map.Entry<String, AttemptWindow>> weakest = Comparator
+                .<Map.Entry<String, AttemptWindow>>comparingLong(e -> e.getValue().lockedUntil > now ? e.getValue().lockedUntil : 0)
+                .thenComparingInt(e -> e.getValue().countSince(from))
+                .thenComparingLong(e -> e.getValue().lastFailure());
+        windows.entrySet().stream().min(weakest).ifPresent(e -> windows.remove(e.getKey()));
+    }
+
+    static int stripe(String username) {
+        int h = username.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
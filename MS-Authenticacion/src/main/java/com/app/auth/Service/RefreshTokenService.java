@@ -0,0 +1,140 @@
+package com.app.auth.Service;
+
+import com.app.auth.Models.RefreshToken;
+import com.app.auth.Repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Emisión y rotación de refresh tokens. Cada uso entrega un token nuevo de la misma familia
+ * e invalida el anterior; presentar un token ya rotado se trata como robo y revoca la familia
+ * completa. La renovación no toca el {@code PasswordEncoder}: es un hash SHA-256 y una
+ * búsqueda por índice.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+    private static final Base64.Encoder TOKEN_ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${auth.app.jwtRefresh}")
+    private long refreshExpirationMs;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository) {
+        this.refreshTokenRepository = refreshTokenRepository;
+    }
+
+    public record IssuedRefreshToken(String token, String username, Instant expiresAt) {
+    }
+
+    /** Abre una familia nueva (login o registro). */
+    @Transactional
+    public IssuedRefreshToken issue(String username) {
+        return save(username, UUID.randomUUID().toString(), Instant.now()).issued();
+    }
+
+    /**
+     * Consume el refresh token y devuelve su sucesor. Lanza {@link BadCredentialsException}
+     * si es desconocido, ha expirado o ya se usó; en el último caso revoca toda la familia.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public IssuedRefreshToken rotate(String token) {
+        if (!StringUtils.hasText(token)) {
+            throw new BadCredentialsException("Refresh token vacío");
+        }
+        Instant now = Instant.now();
+        RefreshToken current = refreshTokenRepository.findByTokenHash(digest(token))
+                .orElseThrow(() -> new BadCredentialsException("Refresh token inválido"));
+
+        if (current.getRevokedAt() != null) {
+            revokeFamily(current, now);
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new BadCredentialsException("Refresh token expirado");
+        }
+
+        Saved next = save(current.getUsername(), current.getFamilyId(), now);
+        // Dos peticiones concurrentes con el mismo token: solo una gana la actualización condicional
+        if (refreshTokenRepository.markRotated(current.getId(), next.hash(), now) == 0) {
+            refreshTokenRepository.delete(next.entity());
+            revokeFamily(current, now);
+        }
+        return next.issued();
+    }
+
+    /** Revoca la familia del token presentado, p. ej. al cerrar sesión. */
+    @Transactional
+    public void revoke(String token) {
+        if (StringUtils.hasText(token)) {
+            refreshTokenRepository.findByTokenHash(digest(token))
+                    .ifPresent(t -> refreshTokenRepository.revokeFamily(t.getFamilyId(), Instant.now()));
+        }
+    }
+
+    @Transactional
+    public int revokeAllForUser(String username) {
+        return refreshTokenRepository.revokeAllForUser(username, Instant.now());
+    }
+
+    @Scheduled(fixedDelayString = "${auth.refresh.purgeIntervalMs:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            logger.info("Refresh tokens expirados eliminados: {}", deleted);
+        }
+    }
+
+    private void revokeFamily(RefreshToken token, Instant now) {
+        int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId(), now);
+        logger.warn("Reutilización de refresh token para {}: familia {} revocada ({} tokens)",
+                token.getUsername(), token.getFamilyId(), revoked);
+        throw new BadCredentialsException("Refresh token reutilizado; sesión revocada");
+    }
+
+    private record Saved(RefreshToken entity, String hash, IssuedRefreshToken issued) {
+    }
+
+    private Saved save(String username, String familyId, Instant now) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String token = TOKEN_ENCODER.encodeToString(bytes);
+        String hash = digest(token);
+        Instant expiresAt = now.plusMillis(refreshExpirationMs);
+
+        RefreshToken entity = refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash)
+                .familyId(familyId)
+                .username(username)
+                .issuedAt(now)
+                .expiresAt(expiresAt)
+                .build());
+        return new Saved(entity, hash, new IssuedRefreshToken(token, username, expiresAt));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
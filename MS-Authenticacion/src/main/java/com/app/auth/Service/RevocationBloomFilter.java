@@ -0,0 +1,88 @@
+package com.app.auth.Service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom thread-safe sobre claves de revocación. Sin falsos negativos: si
+ * {@link #mightContain(String)} devuelve {@code false} la clave no se añadió nunca.
+ * Usa doble hashing (Kirsch-Mitzenmacher) con dos hashes de 64 bits de la clave y no
+ * reserva memoria por consulta.
+ */
+final class RevocationBloomFilter {
+
+    private static final long SEED_1 = 0xcbf29ce484222325L;
+    private static final long SEED_2 = 0x84222325cbf29ce4L;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashFunctions;
+
+    private RevocationBloomFilter(long bitCount, int hashFunctions) {
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (bitCount + 63) >>> 6);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount << 6;
+        this.hashFunctions = hashFunctions;
+    }
+
+    /** Dimensiona el filtro para {@code expectedInsertions} claves con la tasa de falsos positivos dada. */
+    static RevocationBloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int k = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        return new RevocationBloomFilter(Math.max(64, bits), k);
+    }
+
+    void put(String key) {
+        long combined = hash(key, SEED_1);
+        long step = hash(key, SEED_2) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+            combined += step;
+        }
+    }
+
+    boolean mightContain(String key) {
+        long combined = hash(key, SEED_1);
+        long step = hash(key, SEED_2) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = (combined & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            combined += step;
+        }
+        return true;
+    }
+
+    long bitCount() {
+        return bitCount;
+    }
+
+    int hashFunctions() {
+        return hashFunctions;
+    }
+
+    // FNV-1a de 64 bits sobre los char (sin copiar la clave), mezclado con el finalizador de SplitMix64
+    private static long hash(String key, long seed) {
+        long h = seed;
+        for (int i = 0; i < key.length(); i++) {
+            h = (h ^ key.charAt(i)) * 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
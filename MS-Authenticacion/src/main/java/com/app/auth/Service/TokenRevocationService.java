@@ -0,0 +1,240 @@
+package com.app.auth.Service;
+
+import com.app.auth.Models.RevokedToken;
+import com.app.auth.Repository.RevokedTokenRepository;
+import com.app.auth.config.jwt.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Revocación de access tokens antes de su {@code exp}. La lista persistente vive en
+ * {@code revoked_tokens}; delante hay un filtro de Bloom en memoria con todas las claves
+ * vigentes, de modo que el caso normal (token no revocado) es un par de hashes sin tocar
+ * la base de datos. Solo un posible acierto del filtro consulta la tabla, y el resultado
+ * se guarda en una caché local corta.
+ *
+ * <p>El filtro se reconstruye cada {@code auth.revocation.rebuildIntervalMs}: así se
+ * redimensiona, olvida las entradas caducadas y recoge las revocaciones hechas en otras
+ * instancias, que tardan como mucho ese intervalo en aplicarse aquí.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    static final String JTI_PREFIX = "jti:";
+    static final String USER_PREFIX = "user:";
+
+    // Resultado de una consulta a la tabla; NOT_REVOKED marca un falso positivo del filtro
+    private record Revocation(Instant issuedBefore) {
+    }
+
+    private static final Revocation NOT_REVOKED = new Revocation(null);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final TransactionTemplate transactionTemplate;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final long jwtExpirationMs;
+
+    private final Cache<String, Revocation> lookups;
+    // Claves revocadas en esta instancia desde la última reconstrucción
+    private final Set<String> recentKeys = ConcurrentHashMap.newKeySet();
+    private final Object filterLock = new Object();
+    private final AtomicLong activeEntries = new AtomicLong();
+    private final Counter storeHits;
+    private final Counter falsePositives;
+    private volatile RevocationBloomFilter filter;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  RefreshTokenService refreshTokenService,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${auth.revocation.bloom.expectedInsertions:100000}") long expectedInsertions,
+                                  @Value("${auth.revocation.bloom.falsePositiveRate:0.001}") double falsePositiveRate,
+                                  @Value("${auth.revocation.rebuildIntervalMs:30000}") long rebuildIntervalMs,
+                                  @Value("${auth.app.jwtExpirationMs}") long jwtExpirationMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.refreshTokenService = refreshTokenService;
+        this.transactionTemplate = transactionTemplate;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.jwtExpirationMs = jwtExpirationMs;
+        // Las revocaciones remotas llegan con la reconstrucción: la caché no debe durar más
+        this.lookups = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(rebuildIntervalMs))
+                .build();
+        this.filter = RevocationBloomFilter.create(expectedInsertions, falsePositiveRate);
+
+        this.storeHits = Counter.builder("auth.revocation.lookups").tag("result", "revoked").register(meterRegistry);
+        this.falsePositives = Counter.builder("auth.revocation.lookups").tag("result", "false_positive").register(meterRegistry);
+        Gauge.builder("auth.revocation.denylist.size", activeEntries, AtomicLong::get).register(meterRegistry);
+    }
+
+    // Antes de atender tráfico: un filtro vacío dejaría pasar los tokens ya revocados
+    @PostConstruct
+    void init() {
+        rebuild();
+    }
+
+    /** {@code true} si el token o todos los tokens de su usuario emitidos hasta su iat están revocados. */
+    public boolean isRevoked(VerifiedToken token) {
+        RevocationBloomFilter current = filter;
+        String jti = token.getJti();
+        if (jti != null) {
+            String key = JTI_PREFIX + jti;
+            if (current.mightContain(key) && lookup(key) != NOT_REVOKED) {
+                return true;
+            }
+        }
+        String subject = token.getSubject();
+        if (subject != null) {
+            String key = USER_PREFIX + subject;
+            if (current.mightContain(key)) {
+                Revocation revocation = lookup(key);
+                return revocation != NOT_REVOKED
+                        && token.getIssuedAt() != null
+                        && !token.getIssuedAt().toInstant().isAfter(revocation.issuedBefore());
+            }
+        }
+        return false;
+    }
+
+    /** Revoca un token ya verificado hasta su expiración. */
+    public void revoke(VerifiedToken token, String reason) {
+        if (token.getJti() == null) {
+            // Tokens emitidos antes de incluir jti: solo se pueden revocar por usuario
+            revokeUser(token.getSubject(), reason);
+            return;
+        }
+        if (token.isExpired()) {
+            return; // caducó entre la verificación y ahora: ya no se acepta
+        }
+        revokeJti(token.getJti(), token.getSubject(),
+                token.getExpiration() != null ? token.getExpiration().toInstant() : null, reason);
+    }
+
+    /**
+     * Revoca por {@code jti} sin el token a mano (p. ej. desde auditoría). Sin {@code exp}
+     * conocido la entrada se conserva lo que dura un access token, que es también el máximo:
+     * ningún token vigente puede caducar más tarde.
+     *
+     * @throws IllegalArgumentException si {@code expiresAt} ya ha pasado; la entrada nunca se
+     *                                  consultaría y la revocación no tendría efecto
+     */
+    public void revokeJti(String jti, String username, Instant expiresAt, String reason) {
+        Instant now = Instant.now();
+        if (expiresAt != null && !expiresAt.isAfter(now)) {
+            throw new IllegalArgumentException("expiresAt ya ha pasado: el token ha caducado y no necesita revocarse");
+        }
+        Instant latest = now.plusMillis(jwtExpirationMs);
+        store(RevokedToken.builder()
+                .key(JTI_PREFIX + jti)
+                .username(username)
+                .expiresAt(expiresAt == null || expiresAt.isAfter(latest) ? latest : expiresAt)
+                .revokedAt(now)
+                .reason(reason)
+                .build(), new Revocation(null));
+    }
+
+    /**
+     * Revoca todos los access tokens del usuario emitidos hasta ahora y sus refresh tokens.
+     * La precisión de {@code iat} es de segundos, así que un login en el mismo segundo
+     * también queda revocado.
+     */
+    public int revokeUser(String username, String reason) {
+        Instant now = Instant.now();
+        store(RevokedToken.builder()
+                .key(USER_PREFIX + username)
+                .username(username)
+                .issuedBefore(now)
+                // Tras esto no queda ningún token de antes de la revocación sin caducar
+                .expiresAt(now.plusMillis(jwtExpirationMs).plusSeconds(60))
+                .revokedAt(now)
+                .reason(reason)
+                .build(), new Revocation(now));
+        return refreshTokenService.revokeAllForUser(username);
+    }
+
+    private void store(RevokedToken entry, Revocation revocation) {
+        revokedTokenRepository.save(entry);
+        lookups.put(entry.getKey(), revocation);
+        synchronized (filterLock) {
+            filter.put(entry.getKey());
+            recentKeys.add(entry.getKey());
+        }
+        activeEntries.incrementAndGet();
+        logger.info("Revocado {} ({})", entry.getKey(), entry.getReason());
+    }
+
+    private Revocation lookup(String key) {
+        return lookups.get(key, k -> {
+            Optional<RevokedToken> entry = revokedTokenRepository.findById(k)
+                    .filter(r -> r.getExpiresAt().isAfter(Instant.now()));
+            if (entry.isEmpty()) {
+                falsePositives.increment();
+                return NOT_REVOKED;
+            }
+            storeHits.increment();
+            return new Revocation(entry.get().getIssuedBefore());
+        });
+    }
+
+    /** Rehace el filtro desde la tabla con tamaño para el doble de las entradas vigentes. */
+    @Scheduled(fixedDelayString = "${auth.revocation.rebuildIntervalMs:30000}",
+            initialDelayString = "${auth.revocation.rebuildIntervalMs:30000}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        // Estas ya estaban confirmadas en la tabla antes de leerla: entran en el filtro nuevo
+        Set<String> before = new HashSet<>(recentKeys);
+        Set<String> keys = transactionTemplate.execute(status -> {
+            try (Stream<String> active = revokedTokenRepository.streamActiveKeys(Instant.now())) {
+                Set<String> result = new HashSet<>();
+                active.forEach(result::add);
+                return result;
+            }
+        });
+
+        RevocationBloomFilter rebuilt = RevocationBloomFilter.create(
+                Math.max(expectedInsertions, 2L * keys.size()), falsePositiveRate);
+        keys.forEach(rebuilt::put);
+        synchronized (filterLock) {
+            // Las revocadas durante la lectura pueden no estar en keys
+            recentKeys.forEach(rebuilt::put);
+            filter = rebuilt;
+            recentKeys.removeAll(before);
+        }
+        activeEntries.set(keys.size());
+        logger.debug("Filtro de revocación reconstruido: {} claves, {} bits, {} hashes en {} ms",
+                keys.size(), rebuilt.bitCount(), rebuilt.hashFunctions(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.revocation.purgeIntervalMs:3600000}")
+    public void purgeExpired() {
+        Integer deleted = transactionTemplate.execute(status -> revokedTokenRepository.deleteExpired(Instant.now()));
+        if (deleted != null && deleted > 0) {
+            logger.info("Revocaciones expiradas eliminadas: {}", deleted);
+        }
+    }
+}
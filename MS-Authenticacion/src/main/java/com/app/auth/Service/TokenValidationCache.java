@@ -0,0 +1,93 @@
+package com.app.auth.Service;
+
+import com.app.auth.config.jwt.JwtUtils;
+import com.app.auth.config.jwt.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de tokens ya verificados, indexada por el SHA-256 del token (nunca se guarda el
+ * token como clave). Cada entrada expira como muy tarde en el {@code exp} del token, de modo
+ * que una validación repetida es una búsqueda en un hash en lugar de una verificación de firma.
+ * Solo se guardan resultados positivos de firma: la revocación no toca esta caché, la consulta
+ * {@link TokenRevocationService} después de cada acierto.
+ */
+@Component
+public class TokenValidationCache {
+
+    private final JwtUtils jwtUtils;
+    private final Cache<String, VerifiedToken> cache;
+
+    public TokenValidationCache(JwtUtils jwtUtils,
+                                MeterRegistry meterRegistry,
+                                @Value("${auth.cache.tokens.maxSize:100000}") long maxSize,
+                                @Value("${auth.cache.tokens.maxTtlSeconds:900}") long maxTtlSeconds) {
+        this.jwtUtils = jwtUtils;
+        long maxTtlNanos = TimeUnit.SECONDS.toNanos(maxTtlSeconds);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long untilExp = TimeUnit.MILLISECONDS.toNanos(
+                                token.getExpiration().getTime() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(untilExp, maxTtlNanos));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tokenValidation");
+    }
+
+    /**
+     * Devuelve el token verificado desde la caché o lo verifica con {@link JwtUtils#validateToken(String)}.
+     * Propaga las mismas excepciones que la verificación completa.
+     */
+    public VerifiedToken verify(String token) {
+        if (!StringUtils.hasText(token)) {
+            throw new IllegalArgumentException("Token vacío");
+        }
+        String key = digest(token);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        VerifiedToken verified = jwtUtils.validateToken(token);
+        if (verified.getExpiration() != null) {
+            cache.put(key, verified);
+        }
+        return verified;
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
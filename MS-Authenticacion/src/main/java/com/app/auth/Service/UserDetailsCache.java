@@ -0,0 +1,55 @@
+package com.app.auth.Service;
+
+import com.app.auth.Models.UserSnapshot;
+import com.app.auth.config.jwt.PrincipalRevalidationTracker;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Caché acotada por tamaño y TTL de {@link UserSnapshot} por username. Las escrituras
+ * sobre usuarios y roles la invalidan (ver {@code UserCacheInvalidationListener}); el TTL
+ * acota el desfase frente a cambios hechos por otros servicios sobre la misma tabla.
+ * Métricas: {@code cache.gets}, {@code cache.evictions}, ... con {@code cache=userDetails}.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, UserSnapshot> cache;
+    private final PrincipalRevalidationTracker revalidationTracker;
+
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            PrincipalRevalidationTracker revalidationTracker,
+                            @Value("${auth.cache.users.maxSize:10000}") long maxSize,
+                            @Value("${auth.cache.users.ttlSeconds:300}") long ttlSeconds) {
+        this.revalidationTracker = revalidationTracker;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
+
+    public UserSnapshot get(String username, Function<String, UserSnapshot> loader) {
+        return cache.get(username, loader);
+    }
+
+    public void evict(String username) {
+        if (username != null) {
+            cache.invalidate(username);
+            revalidationTracker.invalidate(username);
+        }
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+        revalidationTracker.invalidateAll();
+    }
+}
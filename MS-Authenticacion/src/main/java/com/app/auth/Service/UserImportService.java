@@ -0,0 +1,309 @@
+package com.app.auth.Service;
+
+import com.app.auth.Dto.UserImportFailure;
+import com.app.auth.Dto.UserImportReport;
+import com.app.auth.Dto.UserImportRow;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Importación masiva de usuarios. El fichero se lee en streaming y se procesa por trozos:
+ * una consulta de duplicados por trozo, hash BCrypt en paralelo en un pool acotado y los
+ * {@code INSERT} de {@code users} y {@code user_roles} en lotes JDBC dentro de una
+ * transacción. Si el lote falla (p. ej. un alta concurrente), el trozo se repite fila a
+ * fila para aislar las filas culpables; el resto de la importación sigue adelante.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final String INSERT_USER =
+            "INSERT INTO users (username, email, password, enabled, locked, failed_login_attempts) VALUES (?, ?, ?, ?, ?, ?)";
+    // Sin recuperar las claves generadas: el id se resuelve por username en la misma sentencia
+    private static final String INSERT_USER_ROLE =
+            "INSERT INTO user_roles (user_id, role_id) SELECT id, ? FROM users WHERE username = ?";
+    private static final String FIND_EXISTING =
+            "SELECT username, email FROM users WHERE username IN (:usernames) OR email IN (:emails)";
+
+    public enum Format { NDJSON, CSV }
+
+    private record ParsedRow(long line, String username, String email, String password) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder hashingPasswordEncoder;
+    private final ExecutorService userImportExecutor;
+    private final UserRegistrationService userRegistrationService;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxReportedFailures;
+    private final Semaphore importPermits;
+
+    public UserImportService(JdbcTemplate jdbcTemplate,
+                             NamedParameterJdbcTemplate namedJdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             @Qualifier("hashingPasswordEncoder") PasswordEncoder hashingPasswordEncoder,
+                             @Qualifier("userImportExecutor") ExecutorService userImportExecutor,
+                             UserRegistrationService userRegistrationService,
+                             ObjectMapper objectMapper,
+                             @Value("${auth.import.chunkSize:500}") int chunkSize,
+                             @Value("${auth.import.maxReportedFailures:1000}") int maxReportedFailures,
+                             @Value("${auth.import.maxConcurrent:1}") int maxConcurrent) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = namedJdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.hashingPasswordEncoder = hashingPasswordEncoder;
+        this.userImportExecutor = userImportExecutor;
+        this.userRegistrationService = userRegistrationService;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxReportedFailures = maxReportedFailures;
+        this.importPermits = new Semaphore(maxConcurrent);
+    }
+
+    public UserImportReport importUsers(InputStream body, Format format) throws IOException {
+        if (!importPermits.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Ya hay una importación en curso");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Progress progress = new Progress();
+            long lineNumber = 0;
+            String[] csvHeader = null;
+            if (format == Format.CSV) {
+                String header = reader.readLine();
+                lineNumber++;
+                if (header == null) {
+                    return progress.toReport();
+                }
+                csvHeader = splitCsv(header).stream().map(h -> h.trim().toLowerCase(Locale.ROOT)).toArray(String[]::new);
+            }
+
+            // Duplicados dentro del propio fichero; crece con el fichero, lo acota el tamaño de la importación
+            Set<String> seenUsernames = new HashSet<>();
+            Set<String> seenEmails = new HashSet<>();
+            List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                progress.total++;
+                UserImportRow row;
+                try {
+                    row = format == Format.CSV ? parseCsv(line, csvHeader) : objectMapper.readValue(line, UserImportRow.class);
+                } catch (Exception e) {
+                    progress.fail(lineNumber, null, "Línea mal formada");
+                    continue;
+                }
+                String invalid = validate(row);
+                if (invalid != null) {
+                    progress.fail(lineNumber, row.getUsername(), invalid);
+                    continue;
+                }
+                if (!seenUsernames.add(row.getUsername())) {
+                    progress.fail(lineNumber, row.getUsername(), "Username duplicado en el fichero");
+                    continue;
+                }
+                if (!seenEmails.add(row.getEmail().toLowerCase(Locale.ROOT))) {
+                    progress.fail(lineNumber, row.getUsername(), "Email duplicado en el fichero");
+                    continue;
+                }
+                chunk.add(new ParsedRow(lineNumber, row.getUsername(), row.getEmail(), row.getPassword()));
+                if (chunk.size() == chunkSize) {
+                    processChunk(chunk, progress);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(chunk, progress);
+            }
+            logger.info("Importación de usuarios: {} filas, {} importadas, {} fallidas",
+                    progress.total, progress.imported, progress.failed);
+            return progress.toReport();
+        } finally {
+            importPermits.release();
+        }
+    }
+
+    private void processChunk(List<ParsedRow> chunk, Progress progress) {
+        List<ParsedRow> rows = withoutExisting(chunk, progress);
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<String>> hashes = rows.stream()
+                .map(row -> CompletableFuture.supplyAsync(() -> hashingPasswordEncoder.encode(row.password()), userImportExecutor))
+                .toList();
+        List<Object[]> userArgs = new ArrayList<>(rows.size());
+        List<Object[]> roleArgs = new ArrayList<>(rows.size());
+        Long roleId = userRegistrationService.defaultRole().getId();
+        for (int i = 0; i < rows.size(); i++) {
+            ParsedRow row = rows.get(i);
+            userArgs.add(new Object[]{row.username(), row.email(), hashes.get(i).join(), true, false, 0});
+            roleArgs.add(new Object[]{roleId, row.username()});
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(INSERT_USER, userArgs);
+                jdbcTemplate.batchUpdate(INSERT_USER_ROLE, roleArgs);
+            });
+            progress.imported += rows.size();
+        } catch (DataAccessException e) {
+            logger.warn("Lote de {} usuarios rechazado ({}); reintentando fila a fila", rows.size(), e.getMostSpecificCause().getMessage());
+            for (int i = 0; i < rows.size(); i++) {
+                insertOne(rows.get(i), userArgs.get(i), roleArgs.get(i), progress);
+            }
+        }
+    }
+
+    private void insertOne(ParsedRow row, Object[] userArgs, Object[] roleArgs, Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update(INSERT_USER, userArgs);
+                jdbcTemplate.update(INSERT_USER_ROLE, roleArgs);
+            });
+            progress.imported++;
+        } catch (DataIntegrityViolationException e) {
+            progress.fail(row.line(), row.username(), "Username o email ya existe");
+        } catch (DataAccessException e) {
+            progress.fail(row.line(), row.username(), "Error de base de datos");
+        }
+    }
+
+    /** Una sola consulta por trozo para descartar usernames o emails ya registrados. */
+    private List<ParsedRow> withoutExisting(List<ParsedRow> chunk, Progress progress) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("usernames", chunk.stream().map(ParsedRow::username).toList())
+                .addValue("emails", chunk.stream().map(ParsedRow::email).toList());
+        Set<String> existingUsernames = new HashSet<>();
+        Set<String> existingEmails = new HashSet<>();
+        namedJdbcTemplate.query(FIND_EXISTING, params, rs -> {
+            existingUsernames.add(rs.getString(1));
+            existingEmails.add(rs.getString(2).toLowerCase(Locale.ROOT));
+        });
+        if (existingUsernames.isEmpty()) {
+            return chunk;
+        }
+
+        List<ParsedRow> remaining = new ArrayList<>(chunk.size());
+        for (ParsedRow row : chunk) {
+            if (existingUsernames.contains(row.username())) {
+                progress.fail(row.line(), row.username(), "Username already exists");
+            } else if (existingEmails.contains(row.email().toLowerCase(Locale.ROOT))) {
+                progress.fail(row.line(), row.username(), "Email already exists");
+            } else {
+                remaining.add(row);
+            }
+        }
+        return remaining;
+    }
+
+    private static String validate(UserImportRow row) {
+        if (!StringUtils.hasText(row.getUsername())) {
+            return "Username obligatorio";
+        }
+        if (!StringUtils.hasText(row.getEmail()) || !row.getEmail().contains("@")) {
+            return "Email inválido";
+        }
+        if (!StringUtils.hasText(row.getPassword())) {
+            return "Password obligatorio";
+        }
+        return null;
+    }
+
+    private static UserImportRow parseCsv(String line, String[] header) {
+        List<String> values = splitCsv(line);
+        UserImportRow row = new UserImportRow();
+        for (int i = 0; i < header.length && i < values.size(); i++) {
+            switch (header[i]) {
+                case "username" -> row.setUsername(values.get(i).trim());
+                case "email" -> row.setEmail(values.get(i).trim());
+                case "password" -> row.setPassword(values.get(i));
+                default -> { }
+            }
+        }
+        return row;
+    }
+
+    /** Separa una línea CSV respetando comillas dobles ({@code ""} escapa una comilla). */
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private final class Progress {
+        long total;
+        long imported;
+        long failed;
+        final List<UserImportFailure> failures = new ArrayList<>();
+
+        void fail(long line, String username, String reason) {
+            failed++;
+            if (failures.size() < maxReportedFailures) {
+                failures.add(UserImportFailure.builder().line(line).username(username).reason(reason).build());
+            }
+        }
+
+        UserImportReport toReport() {
+            return UserImportReport.builder()
+                    .total(total)
+                    .imported(imported)
+                    .failed(failed)
+                    .failures(failures)
+                    .failuresTruncated(failed > failures.size())
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.app.auth.Service;
+
+import com.app.auth.Exception.UserAlreadyExistsException;
+import com.app.auth.Models.Role;
+import com.app.auth.Models.User;
+import com.app.auth.Repository.RoleRepository;
+import com.app.auth.Repository.UserRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Alta de usuarios en una sola transacción corta: {@code INSERT} en {@code users} y en
+ * {@code user_roles}. La unicidad de username/email la garantizan los índices únicos
+ * ({@link User}); la violación se traduce a {@link UserAlreadyExistsException} en lugar de
+ * consultar antes con {@code existsBy...}. El rol por defecto se resuelve una vez y se cachea.
+ */
+@Service
+public class UserRegistrationService {
+
+    public static final String DEFAULT_ROLE = "ROLE_USER";
+
+    private final UserRepository userRepository;
+    private final RoleRepository roleRepository;
+
+    private volatile Role defaultRole;
+
+    public UserRegistrationService(UserRepository userRepository, RoleRepository roleRepository) {
+        this.userRepository = userRepository;
+        this.roleRepository = roleRepository;
+    }
+
+    /**
+     * Inserta el usuario con el rol por defecto. La contraseña debe venir ya codificada:
+     * el hash no debe ocupar una conexión del pool.
+     */
+    public User register(User user) {
+        user.setRoles(new HashSet<>(Set.of(defaultRole())));
+        try {
+            // saveAndFlush abre y confirma su propia transacción: la conexión se retiene solo durante los INSERT
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, user);
+        }
+    }
+
+    public Role defaultRole() {
+        Role role = defaultRole;
+        if (role == null) {
+            // Solo pasa en una base nueva mientras CatalogSeeder siembra: reintentable, no un 500
+            role = roleRepository.findByName(DEFAULT_ROLE)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Catálogo de roles aún no disponible, reintente más tarde"));
+            defaultRole = role;
+        }
+        return role;
+    }
+
+    /** Se llama cuando cambia un rol; la siguiente alta vuelve a leer el rol por defecto. */
+    public void evictDefaultRole() {
+        defaultRole = null;
+    }
+
+    private RuntimeException translate(DataIntegrityViolationException e, User user) {
+        String message = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (message.contains(User.USERNAME_CONSTRAINT)) {
+            return new UserAlreadyExistsException("Username already exists: " + user.getUsername());
+        }
+        if (message.contains(User.EMAIL_CONSTRAINT)) {
+            return new UserAlreadyExistsException("Email already exists: " + user.getEmail());
+        }
+        // Índices creados antes de nombrar las restricciones: solo en el camino de error se consulta
+        if (userRepository.existsByUsername(user.getUsername())) {
+            return new UserAlreadyExistsException("Username already exists: " + user.getUsername());
+        }
+        if (userRepository.existsByEmail(user.getEmail())) {
+            return new UserAlreadyExistsException("Email already exists: " + user.getEmail());
+        }
+        return e;
+    }
+}
@@ -0,0 +1,226 @@
+package com.app.auth.config;
+
+import com.app.auth.Exception.UserAlreadyExistsException;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.app.commons.hashing.BulkheadPasswordEncoder;
+import org.app.commons.hashing.PasswordHashingUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tiempos por fase de login, alta, validate-token y el filtro JWT en el timer {@code auth.phase}
+ * (etiquetas {@code operation}, {@code phase}, {@code outcome}); la fase {@code total} cubre la
+ * operación entera y su {@code _count} es el contador por resultado. Con un pico de p99 se ve si
+ * el tiempo fue a la cola de BCrypt, al hash, a la consulta del usuario o a la firma.
+ *
+ * <p>Los timers se resuelven por índice en un array y se registran la primera vez que aparece la
+ * combinación: en la ruta caliente no hay búsqueda en el registry ni etiquetas nuevas, solo
+ * {@code System.nanoTime()} por cambio de fase.
+ */
+@Component
+public class AuthPhaseMetrics {
+
+    public enum Operation {
+        LOGIN, CREATE_USER, VALIDATE_TOKEN, FILTER, PASSWORD_MATCHES, PASSWORD_ENCODE
+    }
+
+    public enum Phase {
+        TOTAL,
+        /** authenticationManager: carga del usuario + cola y cálculo BCrypt */
+        AUTHENTICATE,
+        /** findByUsername con los roles (EAGER, en la misma carga) */
+        USER_LOOKUP,
+        /** UserDetailsService / revalidación del principal (caché o base de datos) */
+        USER_LOAD,
+        TOKEN_SIGN,
+        REFRESH_ISSUE,
+        PASSWORD_HASH,
+        PERSIST,
+        TOKEN_VERIFY,
+        REVOCATION_CHECK,
+        LINKS,
+        /** Espera en la cola del bulkhead de BCrypt */
+        QUEUE_WAIT,
+        BCRYPT
+    }
+
+    public enum Outcome {
+        SUCCESS, EXPIRED, MALFORMED, BAD_SIGNATURE, INVALID, MISSING, UNKNOWN_USER, BAD_CREDENTIALS,
+        LOCKED, DISABLED, REVOKED, DUPLICATE, UNAVAILABLE, ERROR;
+
+        public static Outcome of(Throwable e) {
+            // JwtUtils.validateToken envuelve mal formados y firmas ajenas en un JwtException genérico
+            if (e.getClass() == JwtException.class && e.getCause() != null) {
+                return of(e.getCause());
+            }
+            if (e instanceof ExpiredJwtException) {
+                return EXPIRED;
+            }
+            if (e instanceof MalformedJwtException) {
+                return MALFORMED;
+            }
+            if (e instanceof SignatureException) {
+                return BAD_SIGNATURE;
+            }
+            if (e instanceof JwtException) {
+                return INVALID;
+            }
+            if (e instanceof IllegalArgumentException) {
+                return MISSING;
+            }
+            if (e instanceof UsernameNotFoundException) {
+                return UNKNOWN_USER;
+            }
+            if (e instanceof BadCredentialsException) {
+                return BAD_CREDENTIALS;
+            }
+            if (e instanceof LockedException) {
+                return LOCKED;
+            }
+            if (e instanceof DisabledException) {
+                return DISABLED;
+            }
+            if (e instanceof UserAlreadyExistsException) {
+                return DUPLICATE;
+            }
+            if (e instanceof PasswordHashingUnavailableException) {
+                return UNAVAILABLE;
+            }
+            return ERROR;
+        }
+    }
+
+    private static final int PHASES = Phase.values().length;
+    private static final int OUTCOMES = Outcome.values().length;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean percentileHistogram;
+    private final AtomicReferenceArray<Timer> timers =
+            new AtomicReferenceArray<>(Operation.values().length * PHASES * OUTCOMES);
+
+    public AuthPhaseMetrics(MeterRegistry meterRegistry,
+                            @Value("${auth.metrics.phases.percentileHistogram:true}") boolean percentileHistogram) {
+        this.meterRegistry = meterRegistry;
+        this.percentileHistogram = percentileHistogram;
+    }
+
+    /** Empieza a medir una operación; cada llamada a {@link Trace#phase} cierra la fase anterior. */
+    public Trace trace(Operation operation) {
+        return new Trace(operation, System.nanoTime());
+    }
+
+    /** Registra una fase suelta medida desde {@code start} y devuelve el instante actual. */
+    public long record(Operation operation, Phase phase, Outcome outcome, long start) {
+        long now = System.nanoTime();
+        timer(operation, phase, outcome).record(now - start, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /** Espera en cola y cálculo BCrypt del bulkhead de contraseñas como fases de {@code password_*}. */
+    public BulkheadPasswordEncoder.Timing passwordHashingTiming() {
+        return new BulkheadPasswordEncoder.Timing() {
+            @Override
+            public void dequeued(BulkheadPasswordEncoder.Operation operation, long submittedNanos) {
+                record(of(operation), Phase.QUEUE_WAIT, Outcome.SUCCESS, submittedNanos);
+            }
+
+            @Override
+            public void hashed(BulkheadPasswordEncoder.Operation operation, long startedNanos) {
+                record(of(operation), Phase.BCRYPT, Outcome.SUCCESS, startedNanos);
+            }
+
+            @Override
+            public void completed(BulkheadPasswordEncoder.Operation operation, long submittedNanos, boolean mismatch) {
+                record(of(operation), Phase.TOTAL, mismatch ? Outcome.BAD_CREDENTIALS : Outcome.SUCCESS, submittedNanos);
+            }
+
+            @Override
+            public void failed(BulkheadPasswordEncoder.Operation operation, long submittedNanos, Throwable cause) {
+                record(of(operation), Phase.TOTAL, Outcome.of(cause), submittedNanos);
+            }
+
+            private Operation of(BulkheadPasswordEncoder.Operation operation) {
+                return operation == BulkheadPasswordEncoder.Operation.ENCODE
+                        ? Operation.PASSWORD_ENCODE : Operation.PASSWORD_MATCHES;
+            }
+        };
+    }
+
+    private Timer timer(Operation operation, Phase phase, Outcome outcome) {
+        int index = (operation.ordinal() * PHASES + phase.ordinal()) * OUTCOMES + outcome.ordinal();
+        Timer timer = timers.get(index);
+        if (timer == null) {
+            // Carrera benigna: el registry devuelve el mismo timer para las mismas etiquetas
+            timer = Timer.builder("auth.phase")
+                    .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .tag("outcome", outcome.name().toLowerCase(Locale.ROOT))
+                    .publishPercentileHistogram(percentileHistogram)
+                    .minimumExpectedValue(Duration.ofNanos(50_000))
+                    .maximumExpectedValue(Duration.ofSeconds(10))
+                    .register(meterRegistry);
+            timers.set(index, timer);
+        }
+        return timer;
+    }
+
+    /** Fases de una operación en curso; no es thread-safe, vive en el hilo de la request. */
+    public final class Trace {
+        private final Operation operation;
+        private final long start;
+        private Phase phase;
+        private long phaseStart;
+        private boolean finished;
+
+        private Trace(Operation operation, long start) {
+            this.operation = operation;
+            this.start = start;
+            this.phaseStart = start;
+        }
+
+        /** Cierra la fase en curso como correcta y abre {@code next}. */
+        public void phase(Phase next) {
+            long now = System.nanoTime();
+            if (phase != null) {
+                timer(operation, phase, Outcome.SUCCESS).record(now - phaseStart, TimeUnit.NANOSECONDS);
+            }
+            phase = next;
+            phaseStart = now;
+        }
+
+        public void success() {
+            finish(Outcome.SUCCESS);
+        }
+
+        public void fail(Throwable e) {
+            finish(Outcome.of(e));
+        }
+
+        /** Cierra la fase en curso y la operación con {@code outcome}; solo cuenta la primera vez. */
+        public void finish(Outcome outcome) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            long now = System.nanoTime();
+            if (phase != null) {
+                timer(operation, phase, outcome).record(now - phaseStart, TimeUnit.NANOSECONDS);
+            }
+            timer(operation, Phase.TOTAL, outcome).record(now - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
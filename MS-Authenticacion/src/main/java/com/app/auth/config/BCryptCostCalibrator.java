@@ -0,0 +1,61 @@
+package com.app.auth.config;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Elige el coste BCrypt más alto cuyo hash tarda como mucho {@code budgetMs} en esta
+ * máquina. Cada punto de coste duplica el tiempo, así que basta con medir hacia arriba
+ * desde {@code minStrength} y parar en el primero que se pasa del presupuesto.
+ *
+ * <p>No se ejecuta al arrancar: cada instancia elegiría su propio coste. Se lanza a mano en
+ * el tipo de máquina de producción y el resultado se fija en
+ * {@code auth.passwordHashing.bcrypt.strength} para todo el clúster:
+ * {@code mvn -q compile exec:java -Dexec.mainClass=com.app.auth.config.BCryptCostCalibrator -Dexec.args=100}
+ */
+public final class BCryptCostCalibrator {
+
+    private static final String SAMPLE = "calibration-sample-password";
+
+    private BCryptCostCalibrator() {
+    }
+
+    /** Argumentos opcionales: {@code budgetMs minStrength maxStrength} (por defecto 100 8 14). */
+    public static void main(String[] args) {
+        long budgetMs = args.length > 0 ? Long.parseLong(args[0]) : 100;
+        int minStrength = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int maxStrength = args.length > 2 ? Integer.parseInt(args[2]) : 14;
+        System.out.println("auth.passwordHashing.bcrypt.strength: " + calibrate(budgetMs, minStrength, maxStrength));
+    }
+
+    public static int calibrate(long budgetMs, int minStrength, int maxStrength) {
+        // Calienta el JIT con un coste bajo para no penalizar la primera medida
+        for (int i = 0; i < 3; i++) {
+            BCrypt.hashpw(SAMPLE, BCrypt.gensalt(4));
+        }
+        int chosen = minStrength;
+        for (int strength = minStrength; strength <= maxStrength; strength++) {
+            long elapsedMs = measure(strength);
+            if (elapsedMs > budgetMs) {
+                break;
+            }
+            chosen = strength;
+            // El siguiente coste tardará el doble: no hace falta medirlo si ya no cabe
+            if (elapsedMs * 2 > budgetMs) {
+                break;
+            }
+        }
+        return chosen;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE);
+            best = Math.min(best, (System.nanoTime() - start) / 1_000_000);
+        }
+        return best;
+    }
+}
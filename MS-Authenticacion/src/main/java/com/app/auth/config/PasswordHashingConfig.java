@@ -0,0 +1,100 @@
+package com.app.auth.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.app.commons.hashing.BulkheadPasswordEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingConfig.class);
+    private static final String BCRYPT_ID = "bcrypt";
+
+    /**
+     * Bulkhead para BCrypt: por defecto la mitad de las CPUs, para que un pico de logins
+     * deje siempre núcleos libres a la validación de tokens. Con la cola llena se rechaza.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashingExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${auth.passwordHashing.threads:0}") int threads,
+            @Value("${auth.passwordHashing.queueCapacity:32}") int queueCapacity) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing", List.of());
+    }
+
+    /**
+     * Los hashes nuevos se guardan como {@code {bcrypt}$2a$NN$...}: algoritmo y coste van en el
+     * propio hash. Los hashes sin prefijo (anteriores, o escritos por MS-Usuarios) se verifican
+     * como BCrypt y, si su coste es menor que el configurado, se reescriben en el siguiente login
+     * correcto. El coste es el mismo en todas las instancias (ver {@link BCryptCostCalibrator}).
+     * Sin bulkhead: lo usan directamente los procesos que ya corren en su propio pool.
+     */
+    @Bean
+    public PasswordEncoder hashingPasswordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${auth.passwordHashing.bcrypt.strength:10}") int strength) {
+        if (strength < 4 || strength > 31) {
+            throw new IllegalStateException("auth.passwordHashing.bcrypt.strength debe estar entre 4 y 31");
+        }
+        logger.info("Coste BCrypt {}", strength);
+        Gauge.builder("auth.password.bcrypt.strength", () -> strength).register(meterRegistry);
+
+        StrengthAwareBCryptPasswordEncoder bcrypt = new StrengthAwareBCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
+    }
+
+    @Bean
+    @Primary
+    public PasswordEncoder passwordEncoder(
+            @Qualifier("hashingPasswordEncoder") PasswordEncoder hashingPasswordEncoder,
+            @Qualifier("passwordHashingExecutor") ExecutorService passwordHashingExecutor,
+            @Value("${auth.passwordHashing.timeoutMs:5000}") long timeoutMs,
+            AuthPhaseMetrics phaseMetrics) {
+        return new BulkheadPasswordEncoder(hashingPasswordEncoder, passwordHashingExecutor, timeoutMs,
+                phaseMetrics.passwordHashingTiming());
+    }
+
+    /**
+     * Pool del hash en importaciones masivas, separado del de login. Con la cola llena el hilo
+     * de la importación hashea él mismo, lo que frena la lectura del fichero.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService userImportExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${auth.import.hashThreads:0}") int threads,
+            @Value("${auth.import.chunkSize:500}") int chunkSize) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(chunkSize),
+                new CustomizableThreadFactory("user-import-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "userImport", List.of());
+    }
+}
@@ -1,20 +1,27 @@
 package com.app.auth.config;
 
 
+import com.app.auth.Service.LoginAttemptService;
+import com.app.auth.config.jwt.AuthEntryPointJwt;
 import com.app.auth.config.jwt.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -30,8 +37,37 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    /** Permiso de las cuentas de servicio que validan tokens por lotes. */
+    public static final String TOKEN_INTROSPECTION = "TOKEN_INTROSPECTION";
+
+    /** Permiso de la cuenta con la que Prometheus hace el scrape de métricas. */
+    public static final String METRICS_SCRAPE = "METRICS_SCRAPE";
+
     private final UserDetailsService userDetailsService;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final AuthEntryPointJwt authEntryPointJwt;
+    private final PasswordEncoder passwordEncoder;
+    private final LoginAttemptService loginAttemptService;
+
+    /**
+     * Cadena propia para {@code /actuator/prometheus}: Prometheus no sabe renovar un JWT, así
+     * que aquí (y solo aquí) se acepta HTTP Basic con una cuenta de servicio que tenga
+     * {@link #METRICS_SCRAPE}. También vale un bearer con ese permiso.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain metricsFilterChain(HttpSecurity http) throws Exception {
+        return http
+                .securityMatcher("/actuator/prometheus")
+                .csrf(csrf -> csrf.disable())
+                .authorizeHttpRequests(authRequest -> authRequest.anyRequest().hasAuthority(METRICS_SCRAPE))
+                .sessionManagement(sessionManager ->
+                        sessionManager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .httpBasic(Customizer.withDefaults())
+                .authenticationProvider(authenticationProvider())
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .build();
+    }
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -41,12 +77,19 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authRequest ->
                         authRequest
+                                // Cada token del lote es una verificación de firma: solo para servicios
+                                .requestMatchers(HttpMethod.POST, "/api/auth/validate-tokens")
+                                .hasAuthority(TOKEN_INTROSPECTION)
                                 .requestMatchers("/api/auth/**", "/swagger-ui.html",
-                                        "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                                        "/swagger-ui/**", "/v3/api-docs/**", "/actuator/health", "/actuator/health/**",
+                                        "/.well-known/jwks.json").permitAll()
                                 .anyRequest().authenticated()
                 )
                 .sessionManagement(sessionManager ->
                         sessionManager.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(authEntryPointJwt)
+                        .accessDeniedHandler(authEntryPointJwt))
                 .authenticationProvider(authenticationProvider())
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
@@ -72,12 +115,21 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // AuthService distingue usuario desconocido en métricas y responde igual que a una contraseña errónea
+        authProvider.setHideUserNotFoundExceptions(false);
+        // Cuentas bloqueadas por intentos fallidos se rechazan antes de gastar BCrypt
+        AccountStatusUserDetailsChecker statusChecker = new AccountStatusUserDetailsChecker();
+        authProvider.setPreAuthenticationChecks(user -> {
+            if (loginAttemptService.isLocked(user.getUsername())) {
+                throw new LockedException("Cuenta bloqueada temporalmente por intentos fallidos");
+            }
+            statusChecker.check(user);
+        });
+        // Re-hash al coste BCrypt actual tras un login correcto
+        if (userDetailsService instanceof UserDetailsPasswordService passwordService) {
+            authProvider.setUserDetailsPasswordService(passwordService);
+        }
         return authProvider;
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.app.auth.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.*;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Collectors;
+
+/**
+ * Registra cuánto tarda cada fase del arranque y los pasos más lentos del
+ * {@link BufferingApplicationStartup} (el detalle completo está en {@code /actuator/startup}).
+ * Se registra en {@code main} para recibir también los eventos previos al contexto.
+ */
+public class StartupPhaseLogger implements ApplicationListener<ApplicationEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupPhaseLogger.class);
+    private static final int SLOWEST_STEPS = 10;
+
+    private final BufferingApplicationStartup applicationStartup;
+    private long startingAt;
+    private long environmentAt;
+    private long preparedAt;
+    private long refreshedAt;
+    private long startedAt;
+
+    public StartupPhaseLogger(BufferingApplicationStartup applicationStartup) {
+        this.applicationStartup = applicationStartup;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        long now = System.nanoTime();
+        if (event instanceof ApplicationStartingEvent) {
+            startingAt = now;
+        } else if (event instanceof ApplicationEnvironmentPreparedEvent) {
+            environmentAt = now;
+        } else if (event instanceof ApplicationPreparedEvent) {
+            preparedAt = now;
+        } else if (event instanceof ContextRefreshedEvent) {
+            refreshedAt = now;
+        } else if (event instanceof ApplicationStartedEvent) {
+            startedAt = now;
+        } else if (event instanceof ApplicationReadyEvent) {
+            logger.info("Arranque por fases: entorno {} ms, preparación del contexto {} ms, refresh (beans, JPA, Tomcat) {} ms, " +
+                            "arranque {} ms, runners {} ms; total {} ms",
+                    ms(startingAt, environmentAt), ms(environmentAt, preparedAt), ms(preparedAt, refreshedAt),
+                    ms(refreshedAt, startedAt), ms(startedAt, now), ms(startingAt, now));
+            logSlowestSteps();
+        }
+    }
+
+    private void logSlowestSteps() {
+        StartupTimeline timeline = applicationStartup.getBufferedTimeline();
+        String slowest = timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(SLOWEST_STEPS)
+                .map(e -> {
+                    StringBuilder step = new StringBuilder(e.getStartupStep().getName());
+                    e.getStartupStep().getTags().forEach(tag -> step.append(' ').append(tag.getKey()).append('=').append(tag.getValue()));
+                    return step.append(": ").append(e.getDuration().toMillis()).append(" ms").toString();
+                })
+                .collect(Collectors.joining("\n  ", "\n  ", ""));
+        logger.info("Pasos de arranque más lentos:{}", slowest);
+    }
+
+    private static long ms(long from, long to) {
+        return from == 0 || to == 0 ? -1 : Duration.ofNanos(to - from).toMillis();
+    }
+}
@@ -0,0 +1,36 @@
+package com.app.auth.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * {@link BCryptPasswordEncoder} que pide re-hash cuando el coste guardado en el hash no es el
+ * configurado, en ambos sentidos: al subirlo se refuerzan los hashes antiguos y al bajarlo los
+ * logins dejan de pagar el coste anterior. El coste es uno fijo para todo el clúster, así que un
+ * hash no oscila entre instancias.
+ */
+public class StrengthAwareBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private final int strength;
+
+    public StrengthAwareBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // $2a$10$...: el coste son los dos dígitos tras el prefijo de versión
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(3) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.app.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class TokenValidationExecutorConfig {
+
+    /**
+     * Pool acotado para validar lotes de tokens en paralelo. Con la cola llena el trabajo
+     * se ejecuta en el hilo que envió el lote, así un pico de lotes no crece sin límite.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tokenValidationExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${auth.batch.threads:0}") int threads,
+            @Value("${auth.batch.queueCapacity:256}") int queueCapacity) {
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("token-validation-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "tokenValidation", List.of());
+    }
+}
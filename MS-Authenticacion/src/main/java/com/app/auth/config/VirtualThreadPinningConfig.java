@@ -0,0 +1,26 @@
+package com.app.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.app.commons.threads.VirtualThreadPinningMonitor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * {@link VirtualThreadPinningMonitor} con el umbral {@code auth.threads.pinning.thresholdMs}, solo
+ * en modo de hilos virtuales.
+ * Revisado para esta versión: mysql-connector-j 9.x usa {@code ReentrantLock}, HikariCP 5 solo
+ * sincroniza en arranque y parada del pool, y el único monitor propio retenido durante E/S
+ * ({@code LoginAttemptService.flush}) ya no es {@code synchronized}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningConfig {
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                                                   @Value("${auth.threads.pinning.thresholdMs:20}") long thresholdMs) {
+        return new VirtualThreadPinningMonitor(meterRegistry, thresholdMs);
+    }
+}
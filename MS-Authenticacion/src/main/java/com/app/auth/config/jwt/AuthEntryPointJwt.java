@@ -1,41 +1,42 @@
 package com.app.auth.config.jwt;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
 
+/** 401 sin credenciales y 403 sin permisos, con el mismo cuerpo JSON que el filtro JWT. */
 @Component
-public class AuthEntryPointJwt implements AuthenticationEntryPoint {
+public class AuthEntryPointJwt implements AuthenticationEntryPoint, AccessDeniedHandler {
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwt.class);
+  private final AuthErrorWriter errorWriter;
+
+  public AuthEntryPointJwt(AuthErrorWriter errorWriter) {
+    this.errorWriter = errorWriter;
+  }
 
   @Override
   public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException authException)
       throws IOException, ServletException {
-    logger.error("Unauthorized error: {}", authException.getMessage());
-
-    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
-    response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-
-    final Map<String, Object> body = new HashMap<>();
-    body.put("status", HttpServletResponse.SC_UNAUTHORIZED);
-    body.put("error", "Unauthorized");
-    body.put("message", authException.getMessage());
-    body.put("path", request.getServletPath());
+    if (authException instanceof InsufficientAuthenticationException) {
+      errorWriter.write(request, response, AuthErrorWriter.Reason.AUTHENTICATION_REQUIRED, authException.getMessage());
+    } else {
+      errorWriter.write(request, response, HttpStatus.UNAUTHORIZED, authException.getMessage());
+    }
+  }
 
-    final ObjectMapper mapper = new ObjectMapper();
-    mapper.writeValue(response.getOutputStream(), body);
+  @Override
+  public void handle(HttpServletRequest request, HttpServletResponse response, AccessDeniedException accessDeniedException)
+      throws IOException, ServletException {
+    errorWriter.write(request, response, AuthErrorWriter.Reason.ACCESS_DENIED, accessDeniedException.getMessage());
   }
 
 }
@@ -0,0 +1,154 @@
+package com.app.auth.config.jwt;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Respuestas de error de autenticación ({@code {"status","error","message","path"}}) para el
+ * filtro JWT y los handlers de Spring Security. Con un flood de tokens inválidos esta ruta es
+ * la caliente: los cuerpos de los motivos conocidos están pre-codificados hasta la ruta, que es
+ * lo único que se escapa por request, y los mensajes arbitrarios usan el {@link ObjectMapper}
+ * compartido de la aplicación.
+ *
+ * <p>Cada motivo se registra como mucho una vez por {@code auth.errors.logIntervalMs}, con el
+ * número de repeticiones suprimidas; el total exacto queda en la métrica {@code auth.errors}.
+ */
+@Component
+public class AuthErrorWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthErrorWriter.class);
+    private static final byte[] BODY_SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    public enum Reason {
+        TOKEN_EXPIRED(HttpStatus.UNAUTHORIZED, "Token expirado"),
+        TOKEN_MALFORMED(HttpStatus.BAD_REQUEST, "Token inválido"),
+        BAD_SIGNATURE(HttpStatus.UNAUTHORIZED, "Firma del token no válida"),
+        TOKEN_MISSING(HttpStatus.BAD_REQUEST, "Token ausente o incorrecto"),
+        TOKEN_REVOKED(HttpStatus.UNAUTHORIZED, "Token revocado"),
+        USER_NOT_FOUND(HttpStatus.UNAUTHORIZED, "Usuario no encontrado"),
+        USER_DISABLED(HttpStatus.UNAUTHORIZED, "Usuario bloqueado o deshabilitado"),
+        AUTHENTICATION_REQUIRED(HttpStatus.UNAUTHORIZED, "Se requiere autenticación"),
+        ACCESS_DENIED(HttpStatus.FORBIDDEN, "Acceso denegado"),
+        AUTHENTICATION_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "Error en la autenticación");
+
+        private final HttpStatus status;
+        private final String message;
+
+        Reason(HttpStatus status, String message) {
+            this.status = status;
+            this.message = message;
+        }
+
+        public HttpStatus getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    // Estado del log limitado de un motivo
+    private static final class LogWindow {
+        final AtomicLong nextLogAt = new AtomicLong(System.nanoTime());
+        final LongAdder suppressed = new LongAdder();
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long logIntervalNanos;
+    private final byte[][] bodyPrefixes = new byte[Reason.values().length][];
+    private final LogWindow[] logWindows = new LogWindow[Reason.values().length];
+    private final Counter[] counters = new Counter[Reason.values().length];
+
+    public AuthErrorWriter(ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry,
+                           @Value("${auth.errors.logIntervalMs:10000}") long logIntervalMs) {
+        this.objectMapper = objectMapper;
+        this.logIntervalNanos = TimeUnit.MILLISECONDS.toNanos(logIntervalMs);
+        for (Reason reason : Reason.values()) {
+            bodyPrefixes[reason.ordinal()] = bodyPrefix(reason.status, reason.message);
+            logWindows[reason.ordinal()] = new LogWindow();
+            counters[reason.ordinal()] = Counter.builder("auth.errors")
+                    .tag("reason", reason.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Escribe el error de un motivo conocido y lo cuenta. {@code detail} (p. ej. el mensaje de
+     * jjwt) solo va al log, nunca al cliente.
+     */
+    public void write(HttpServletRequest request, HttpServletResponse response, Reason reason, String detail)
+            throws IOException {
+        counters[reason.ordinal()].increment();
+        logLimited(reason, request, detail);
+
+        byte[] prefix = bodyPrefixes[reason.ordinal()];
+        byte[] path = JsonStringEncoder.getInstance().quoteAsUTF8(request.getServletPath());
+        response.setStatus(reason.status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(prefix.length + path.length + BODY_SUFFIX.length);
+        ServletOutputStream out = response.getOutputStream();
+        out.write(prefix);
+        out.write(path);
+        out.write(BODY_SUFFIX);
+        out.flush();
+    }
+
+    /** Mensaje no previsto: mismo formato, serializado con el {@link ObjectMapper} compartido. */
+    public void write(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>(4);
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        body.put("path", request.getServletPath());
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private void logLimited(Reason reason, HttpServletRequest request, String detail) {
+        LogWindow window = logWindows[reason.ordinal()];
+        long now = System.nanoTime();
+        long next = window.nextLogAt.get();
+        if (now - next < 0 || !window.nextLogAt.compareAndSet(next, now + logIntervalNanos)) {
+            window.suppressed.increment();
+            return;
+        }
+        long suppressed = window.suppressed.sumThenReset();
+        if (reason.status.is5xxServerError()) {
+            logger.error("{} en {}: {} ({} similares suprimidos)", reason.message, request.getServletPath(), detail, suppressed);
+        } else {
+            logger.warn("{} en {}: {} ({} similares suprimidos)", reason.message, request.getServletPath(), detail, suppressed);
+        }
+    }
+
+    private static byte[] bodyPrefix(HttpStatus status, String message) {
+        String prefix = "{\"status\":" + status.value()
+                + ",\"error\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(status.getReasonPhrase()))
+                + "\",\"message\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(message))
+                + "\",\"path\":\"";
+        return prefix.getBytes(StandardCharsets.UTF_8);
+    }
+}
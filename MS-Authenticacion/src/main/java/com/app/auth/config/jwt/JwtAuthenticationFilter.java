@@ -1,17 +1,22 @@
 package com.app.auth.config.jwt;
 
+import com.app.auth.Service.TokenRevocationService;
+import com.app.auth.config.AuthPhaseMetrics;
+import com.app.auth.config.AuthPhaseMetrics.Operation;
+import com.app.auth.config.AuthPhaseMetrics.Outcome;
+import com.app.auth.config.AuthPhaseMetrics.Phase;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
-import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -22,6 +27,7 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 
 @Component
@@ -32,12 +38,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
     private JwtUtils jwtUtils;
-    private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
+    @Autowired
+    private PrincipalRevalidationTracker revalidationTracker;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private AuthErrorWriter errorWriter;
+
+    @Autowired
+    private AuthPhaseMetrics phaseMetrics;
+
+    @Value("${auth.app.statelessPrincipal:true}")
+    private boolean statelessPrincipal;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
+        AuthPhaseMetrics.Trace trace = null;
         try {
             final String token = getTokenFromRequest(request);
 
@@ -46,25 +67,48 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 return;
             }
 
-            authenticateUser(token, request, response);
+            trace = phaseMetrics.trace(Operation.FILTER);
+            if (!authenticateUser(token, request, response, trace)) {
+                // La respuesta de error ya está escrita: no se sigue con la cadena
+                return;
+            }
+            trace.success();
         } catch (Exception e) {
-            logger.error("Error en la autenticación: {}", e.getMessage());
-            response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR, "Error en la autenticación");
+            if (trace != null) {
+                trace.fail(e);
+            }
+            errorWriter.write(request, response, AuthErrorWriter.Reason.AUTHENTICATION_ERROR, e.getMessage());
             return;
         }
 
         filterChain.doFilter(request, response);
     }
 
-    private void authenticateUser(String token, HttpServletRequest request, HttpServletResponse response)
-            throws IOException {
+    /** Devuelve {@code false} si rechazó el token y ya escribió la respuesta de error. */
+    private boolean authenticateUser(String token, HttpServletRequest request, HttpServletResponse response,
+                                     AuthPhaseMetrics.Trace trace) throws IOException {
         try {
-            String username = jwtUtils.getUsernameFromToken(token);
+            trace.phase(Phase.TOKEN_VERIFY);
+            VerifiedToken verified = jwtUtils.verify(token);
+            String username = verified.getSubject();
+
+            trace.phase(Phase.REVOCATION_CHECK);
+            if (tokenRevocationService.isRevoked(verified)) {
+                trace.finish(Outcome.REVOKED);
+                errorWriter.write(request, response, AuthErrorWriter.Reason.TOKEN_REVOKED, username);
+                return false;
+            }
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                List<GrantedAuthority> authorities = statelessPrincipal ? jwtUtils.getAuthorities(verified) : null;
+                if (authorities != null) {
+                    return authenticateFromClaims(verified, authorities, request, response, trace);
+                }
+
+                trace.phase(Phase.USER_LOAD);
                 UserDetails userDetails = userDetailsService.loadUserByUsername(username);
 
-                if (jwtUtils.isTokenValid(token, userDetails)) {
+                if (jwtUtils.isTokenValid(verified, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
 
@@ -72,22 +116,54 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
+            return true;
         } catch (ExpiredJwtException e) {
-            logger.error("Token expirado: {}", e.getMessage());
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token expirado");
+            trace.fail(e);
+            errorWriter.write(request, response, AuthErrorWriter.Reason.TOKEN_EXPIRED, e.getMessage());
         } catch (MalformedJwtException e) {
-            logger.error("Token inválido: {}", e.getMessage());
-            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Token inválido");
+            trace.fail(e);
+            errorWriter.write(request, response, AuthErrorWriter.Reason.TOKEN_MALFORMED, e.getMessage());
         } catch (SignatureException e) {
-            logger.error("Firma del token no válida: {}", e.getMessage());
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Firma del token no válida");
+            trace.fail(e);
+            errorWriter.write(request, response, AuthErrorWriter.Reason.BAD_SIGNATURE, e.getMessage());
         } catch (IllegalArgumentException e) {
-            logger.error("Token ausente o incorrecto: {}", e.getMessage());
-            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Token ausente o incorrecto");
+            trace.fail(e);
+            errorWriter.write(request, response, AuthErrorWriter.Reason.TOKEN_MISSING, e.getMessage());
         } catch (UsernameNotFoundException e) {
-            logger.error("Usuario no encontrado: {}", e.getMessage());
-            response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Usuario no encontrado");
+            trace.fail(e);
+            errorWriter.write(request, response, AuthErrorWriter.Reason.USER_NOT_FOUND, e.getMessage());
         }
+        return false;
+    }
+
+    private boolean authenticateFromClaims(VerifiedToken verified, List<GrantedAuthority> authorities,
+                                        HttpServletRequest request, HttpServletResponse response,
+                                        AuthPhaseMetrics.Trace trace) throws IOException {
+        String username = verified.getSubject();
+
+        // Solo se consulta la base de datos al vencer el intervalo de revalidación o tras una revocación
+        if (revalidationTracker.isDue(username)) {
+            trace.phase(Phase.USER_LOAD);
+            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+            if (!userDetails.isEnabled() || !userDetails.isAccountNonLocked()) {
+                trace.finish(Outcome.DISABLED);
+                errorWriter.write(request, response, AuthErrorWriter.Reason.USER_DISABLED, username);
+                return false;
+            }
+            revalidationTracker.markValidated(username);
+        }
+
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                username, null, authorities);
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+        return true;
+    }
+
+    // Logout verifica el token por su cuenta: uno expirado no debe impedir revocar el refresh token
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return "/api/auth/logout".equals(request.getServletPath());
     }
 
     private String getTokenFromRequest(HttpServletRequest request){
@@ -1,129 +1,178 @@
 package com.app.auth.config.jwt;
 
+import com.app.auth.Models.Role;
+import com.app.auth.Models.User;
+import com.app.auth.Models.UserSnapshot;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
-import java.util.Date;
-import java.util.HashMap;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 
 
 @Service
 public class JwtUtils {
 
-    @Value("${auth.app.jwtSecret}")
-    private String jwtSecret;
-
     @Value("${auth.app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
     @Value("${auth.app.jwtCookieName}")
     private String jwtCookie;
-    @Value("${auth.app.jwtRefresh}")
-    private String jwtRefreshMs;
     private static final Logger logger = LoggerFactory.getLogger(AuthEntryPointJwt.class);
 
+    public static final String ROLES_CLAIM = "roles";
+    public static final String PERMISSIONS_CLAIM = "perms";
+
+    // El catálogo de permisos es pequeño: se reutiliza la misma instancia por nombre
+    private final ConcurrentMap<String, GrantedAuthority> authorityCache = new ConcurrentHashMap<>();
+
+    private final SigningKeyRing keyRing;
+
+    // El parser es inmutable y thread-safe: se construye una sola vez y resuelve la clave por kid
+    private JwtParser jwtParser;
+
+    public JwtUtils(SigningKeyRing keyRing) {
+        this.keyRing = keyRing;
+    }
+
+    @PostConstruct
+    void init() {
+        this.jwtParser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        Key key = keyRing.verificationKey(header.getKeyId(), header.getAlgorithm());
+                        if (key == null) {
+                            throw new io.jsonwebtoken.security.SignatureException("Clave de firma desconocida: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
+    }
+
     public String getUsernameFromToken(String token) {
-        return getClaims(token, Claims::getSubject);
+        return verify(token).getSubject();
     }
 
     public String getToken(UserDetails user) {
-        return generateTokenFromUsername(new HashMap<>(), user);
+        HashMap<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, roleNames(user));
+        claims.put(PERMISSIONS_CLAIM, user.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .distinct()
+                .toList());
+        return generateTokenFromUsername(claims, user);
     }
 
-    public Key getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private List<String> roleNames(UserDetails user) {
+        if (user instanceof UserSnapshot snapshot) {
+            return snapshot.getRoleNames();
+        }
+        if (user instanceof User entity && entity.getRoles() != null) {
+            return entity.getRoles().stream().map(Role::getName).toList();
+        }
+        return List.of();
+    }
+
+    /**
+     * Authorities embebidas en el token, o {@code null} si el token se emitió sin el claim
+     * de permisos (tokens anteriores) y hay que resolverlas desde la base de datos.
+     */
+    public List<GrantedAuthority> getAuthorities(VerifiedToken token) {
+        Object perms = token.getClaims().get(PERMISSIONS_CLAIM);
+        if (!(perms instanceof Collection<?> names)) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(names.size());
+        for (Object name : names) {
+            authorities.add(authorityCache.computeIfAbsent(String.valueOf(name), SimpleGrantedAuthority::new));
+        }
+        return authorities;
     }
 
     private String generateTokenFromUsername(HashMap<String, Object> extraClaims, UserDetails user) {
         Date issuedAt = new Date();
-        Date expiration = new Date(System.currentTimeMillis() + jwtExpirationMs);
+        Date expiration = new Date(issuedAt.getTime() + jwtExpirationMs);
 
         extraClaims.put("issuedAt", issuedAt);
         extraClaims.put("expiration", expiration);
 
-        String token = Jwts.builder()
+        SigningKeyRing.RingKey key = keyRing.getActiveKey();
+        return Jwts.builder()
+                .header().keyId(key.kid()).and()
                 .claims(extraClaims)
+                // jti: permite revocar este token concreto antes de su exp
+                .id(UUID.randomUUID().toString())
                 .subject(user.getUsername())
                 .issuedAt(issuedAt)
                 .expiration(expiration)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(key.signingKey(), keyRing.getSignatureAlgorithm())
                 .compact();
-        return token;
     }
 
-    private Claims getAllClaims(String token) {
+    /**
+     * Verifica firma y expiración una sola vez y devuelve el token ya validado.
+     * Propaga las excepciones de jjwt ({@link ExpiredJwtException}, {@link MalformedJwtException},
+     * {@link io.jsonwebtoken.security.SignatureException}, {@link IllegalArgumentException}).
+     */
+    public VerifiedToken verify(String token) {
         try {
-            return Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return new VerifiedToken(token, jwtParser.parseSignedClaims(token).getPayload());
         } catch (Exception e) {
-            logger.error("Error al validar token: " + e.getMessage());
+            // Quien llama decide cómo informar; con un flood de tokens inválidos esto no debe ir a ERROR
+            logger.debug("Error al validar token: {}", e.getMessage());
             throw e;
         }
     }
 
     public <T> T getClaims(String token, Function<Claims,T> claimsReslver){
-        final Claims claims=getAllClaims(token);
-        return claimsReslver.apply(claims);
-    }
-    private Date getExpiration(String token){
-        return getClaims(token,Claims::getExpiration);
+        return claimsReslver.apply(verify(token).getClaims());
     }
     public boolean isTokenExpired(String token) {
-        return getExpiration(token).before(new Date());
+        return verify(token).isExpired();
     }
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
 
-            final String username = claims.getSubject();
-            final boolean isExpired = claims.getExpiration().before(new Date());
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.getSubject() != null
+                && token.getSubject().equals(userDetails.getUsername())
+                && !token.isExpired();
+    }
 
-            if (!username.equals(userDetails.getUsername())) {
-                throw new Exception("Usuario no coincide");
+    public boolean isTokenValid(String token, UserDetails userDetails) {
+        try {
+            VerifiedToken verified = verify(token);
+            if (!verified.getSubject().equals(userDetails.getUsername())) {
+                throw new JwtException("Usuario no coincide");
             }
-
-            return !isExpired;
-
+            return !verified.isExpired();
         } catch (ExpiredJwtException ex) {
             logger.warn("Token expirado: {}", ex.getMessage());
             throw new RuntimeException(ex);
         } catch (Exception e) {
             logger.error("Error validando token: {}", e.getMessage());
-            try {
-                throw new Exception("Error procesando JWT", e);
-            } catch (Exception ex) {
-                throw new RuntimeException(ex);
-            }
+            throw new RuntimeException(new Exception("Error procesando JWT", e));
         }
     }
 
-    public void validateToken(String token) {
+    public VerifiedToken validateToken(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            return verify(token);
         } catch (ExpiredJwtException ex) {
-            logger.warn("Token expirado: {}", ex.getMessage());
+            logger.debug("Token expirado: {}", ex.getMessage());
             throw ex;
         } catch (MalformedJwtException | SignatureException | IllegalArgumentException e) {
-            logger.error("Token inválido: {}", e.getMessage());
+            logger.debug("Token inválido: {}", e.getMessage());
             throw new JwtException("Token inválido", e);
         }
     }
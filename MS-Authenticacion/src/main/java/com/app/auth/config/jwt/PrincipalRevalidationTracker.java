@@ -0,0 +1,45 @@
+package com.app.auth.config.jwt;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Recuerda cuándo se comprobó por última vez cada usuario contra la base de datos
+ * en modo de principal sin estado. Entre revalidaciones el filtro confía en los
+ * claims del token; {@link #invalidate(String)} fuerza la consulta en el siguiente request.
+ */
+@Component
+public class PrincipalRevalidationTracker {
+
+    private final ConcurrentMap<String, Long> lastValidated = new ConcurrentHashMap<>();
+
+    @Value("${auth.app.principalRevalidationMs:300000}")
+    private long revalidationMs;
+
+    @Value("${auth.app.principalRevalidationMaxEntries:100000}")
+    private int maxEntries;
+
+    public boolean isDue(String username) {
+        Long last = lastValidated.get(username);
+        return last == null || System.currentTimeMillis() - last >= revalidationMs;
+    }
+
+    public void markValidated(String username) {
+        if (lastValidated.size() >= maxEntries) {
+            // Sin estado que perder: vaciar solo provoca una revalidación adicional por usuario
+            lastValidated.clear();
+        }
+        lastValidated.put(username, System.currentTimeMillis());
+    }
+
+    public void invalidate(String username) {
+        lastValidated.remove(username);
+    }
+
+    public void invalidateAll() {
+        lastValidated.clear();
+    }
+}
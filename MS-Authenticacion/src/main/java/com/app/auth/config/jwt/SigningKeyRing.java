@@ -0,0 +1,262 @@
+package com.app.auth.config.jwt;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.InputStream;
+import java.security.*;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Claves de firma identificadas por {@code kid}. Firma con la clave activa y verifica con
+ * cualquier clave publicada, con búsqueda O(1) por {@code kid}. Las claves públicas se
+ * exponen en {@code /.well-known/jwks.json} para que otros servicios verifiquen localmente.
+ *
+ * <p>Con {@code auth.jwt.keyStore.location} (PKCS12) cada alias con clave privada es un
+ * {@code kid} y {@code auth.jwt.keyStore.activeAlias} el que firma; es el modo para varias
+ * instancias. La rotación se hace en tres despliegues: añadir el alias nuevo, activarlo y
+ * retirar el anterior cuando ya no queden tokens firmados con él.
+ *
+ * <p>RS256/EdDSA sin keystore no arrancan: cada proceso tendría sus propias claves, un reinicio
+ * invalidaría los tokens emitidos y las instancias rechazarían los tokens de las demás. Solo en
+ * desarrollo, con {@code auth.jwt.ephemeralKeys=true}, las claves se generan en memoria y rotan
+ * cada {@code auth.jwt.rotationHours}: la siguiente se publica con un periodo de antelación y la
+ * saliente se conserva hasta que expira el último token que pudo firmar.
+ */
+@Component
+public class SigningKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(SigningKeyRing.class);
+    private static final DateTimeFormatter KID_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    public enum Algorithm { HS256, RS256, EdDSA }
+
+    public record RingKey(String kid, Key signingKey, Key verificationKey, Instant activeFrom, Instant retireAt) {
+    }
+
+    private record Snapshot(RingKey active, RingKey next, Map<String, RingKey> byKid, String jwksJson) {
+    }
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${auth.jwt.algorithm:HS256}")
+    private Algorithm algorithm;
+
+    @Value("${auth.app.jwtSecret:}")
+    private String legacySecret;
+
+    @Value("${auth.jwt.acceptLegacyHmac:true}")
+    private boolean acceptLegacyHmac;
+
+    @Value("${auth.app.jwtExpirationMs}")
+    private long jwtExpirationMs;
+
+    @Value("${auth.jwt.ephemeralKeys:false}")
+    private boolean ephemeralKeys;
+
+    @Value("${auth.jwt.rotationHours:24}")
+    private long rotationHours;
+
+    @Value("${auth.jwt.keyStore.location:}")
+    private String keyStoreLocation;
+
+    @Value("${auth.jwt.keyStore.password:}")
+    private String keyStorePassword;
+
+    @Value("${auth.jwt.keyStore.activeAlias:}")
+    private String activeAlias;
+
+    private SecretKey legacyHmacKey;
+    private volatile Snapshot snapshot;
+
+    public SigningKeyRing(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    @PostConstruct
+    void init() throws Exception {
+        if (StringUtils.hasText(legacySecret)) {
+            legacyHmacKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(legacySecret));
+        }
+
+        if (algorithm == Algorithm.HS256) {
+            if (legacyHmacKey == null) {
+                throw new IllegalStateException("auth.jwt.algorithm=HS256 requiere auth.app.jwtSecret");
+            }
+            // Modo compatible: sin kid, igual que los tokens emitidos antes del anillo de claves
+            RingKey hmac = new RingKey(null, legacyHmacKey, legacyHmacKey, Instant.now(), null);
+            snapshot = new Snapshot(hmac, null, Map.of(), "{\"keys\":[]}");
+        } else if (StringUtils.hasText(keyStoreLocation)) {
+            snapshot = loadKeyStore();
+        } else if (!ephemeralKeys) {
+            throw new IllegalStateException("auth.jwt.algorithm=" + algorithm + " requiere auth.jwt.keyStore.location; "
+                    + "auth.jwt.ephemeralKeys=true genera claves en memoria solo para desarrollo con una instancia");
+        } else {
+            logger.warn("Claves JWT {} generadas en memoria (auth.jwt.ephemeralKeys): los tokens no sobreviven "
+                    + "a un reinicio ni los aceptan otras instancias", algorithm);
+            Instant now = Instant.now();
+            snapshot = build(generate(now), generate(now.plus(rotationPeriod())), List.of());
+        }
+        logger.info("Firma JWT {} con kid activo {}", algorithm, snapshot.active().kid());
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public RingKey getActiveKey() {
+        return snapshot.active();
+    }
+
+    @SuppressWarnings("unchecked")
+    public SecureDigestAlgorithm<Key, Key> getSignatureAlgorithm() {
+        return (SecureDigestAlgorithm<Key, Key>) (SecureDigestAlgorithm<?, ?>) switch (algorithm) {
+            case HS256 -> Jwts.SIG.HS256;
+            case RS256 -> Jwts.SIG.RS256;
+            case EdDSA -> Jwts.SIG.EdDSA;
+        };
+    }
+
+    /**
+     * Clave de verificación para el {@code kid} del encabezado, o {@code null} si no se conoce.
+     * Los tokens sin {@code kid} se verifican con el secreto HMAC heredado si está permitido.
+     */
+    public Key verificationKey(String kid, String alg) {
+        if (kid == null) {
+            boolean hmac = alg != null && alg.startsWith("HS");
+            return hmac && (algorithm == Algorithm.HS256 || acceptLegacyHmac) ? legacyHmacKey : null;
+        }
+        RingKey key = snapshot.byKid().get(kid);
+        return key != null ? key.verificationKey() : null;
+    }
+
+    public String getJwksJson() {
+        return snapshot.jwksJson();
+    }
+
+    @Scheduled(fixedDelayString = "${auth.jwt.rotationCheckMs:60000}")
+    public void rotateIfDue() {
+        Snapshot current = snapshot;
+        if (current.next() == null) {
+            return; // HS256 o keystore: la rotación es por despliegue
+        }
+        Instant now = Instant.now();
+        if (now.isBefore(current.next().activeFrom())) {
+            purgeRetired(current, now);
+            return;
+        }
+        rotate(now);
+    }
+
+    /** Activa la clave publicada por adelantado y genera la siguiente. */
+    public synchronized void rotate(Instant now) {
+        Snapshot current = snapshot;
+        if (current.next() == null) {
+            throw new IllegalStateException("La rotación automática solo aplica a claves generadas");
+        }
+        // La saliente sigue verificando hasta que caduque el último token que pudo firmar
+        RingKey outgoing = withRetireAt(current.active(), now.plusMillis(jwtExpirationMs).plusSeconds(60));
+        List<RingKey> retained = new ArrayList<>(current.byKid().values().stream()
+                .filter(k -> k.retireAt() != null && k.retireAt().isAfter(now))
+                .toList());
+        retained.add(outgoing);
+        RingKey active = current.next();
+        snapshot = build(active, generate(now.plus(rotationPeriod())), retained);
+        logger.info("Clave JWT rotada: activa {}, retirada {} hasta {}", active.kid(), outgoing.kid(), outgoing.retireAt());
+    }
+
+    private synchronized void purgeRetired(Snapshot current, Instant now) {
+        boolean expired = current.byKid().values().stream()
+                .anyMatch(k -> k.retireAt() != null && !k.retireAt().isAfter(now));
+        if (expired && snapshot == current) {
+            List<RingKey> retained = current.byKid().values().stream()
+                    .filter(k -> k.retireAt() != null && k.retireAt().isAfter(now))
+                    .toList();
+            snapshot = build(current.active(), current.next(), retained);
+        }
+    }
+
+    private Duration rotationPeriod() {
+        return rotationHours > 0 ? Duration.ofHours(rotationHours) : Duration.ofDays(365 * 100L);
+    }
+
+    private RingKey generate(Instant activeFrom) {
+        KeyPair pair = switch (algorithm) {
+            case RS256 -> Jwts.SIG.RS256.keyPair().build();
+            case EdDSA -> Jwts.SIG.EdDSA.keyPair().build();
+            case HS256 -> throw new IllegalStateException("HS256 no usa pares de claves");
+        };
+        String kid = KID_FORMAT.format(activeFrom) + "-" + UUID.randomUUID().toString().substring(0, 8);
+        return new RingKey(kid, pair.getPrivate(), pair.getPublic(), activeFrom, null);
+    }
+
+    private static RingKey withRetireAt(RingKey key, Instant retireAt) {
+        return new RingKey(key.kid(), key.signingKey(), key.verificationKey(), key.activeFrom(), retireAt);
+    }
+
+    private Snapshot loadKeyStore() throws Exception {
+        Resource resource = resourceLoader.getResource(keyStoreLocation);
+        char[] password = keyStorePassword.toCharArray();
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream in = resource.getInputStream()) {
+            keyStore.load(in, password);
+        }
+
+        RingKey active = null;
+        List<RingKey> keys = new ArrayList<>();
+        for (String alias : Collections.list(keyStore.aliases())) {
+            PublicKey publicKey = keyStore.getCertificate(alias) != null ? keyStore.getCertificate(alias).getPublicKey() : null;
+            if (publicKey == null) {
+                continue;
+            }
+            Key privateKey = keyStore.isKeyEntry(alias) ? keyStore.getKey(alias, password) : null;
+            RingKey key = new RingKey(alias, privateKey, publicKey, Instant.now(), null);
+            if (alias.equals(activeAlias)) {
+                active = key;
+            } else {
+                keys.add(key);
+            }
+        }
+        if (active == null || active.signingKey() == null) {
+            throw new IllegalStateException("El keystore no contiene la clave privada activa '" + activeAlias + "'");
+        }
+        return build(active, null, keys);
+    }
+
+    private Snapshot build(RingKey active, RingKey next, Collection<RingKey> others) {
+        Map<String, RingKey> byKid = new HashMap<>();
+        byKid.put(active.kid(), active);
+        if (next != null) {
+            byKid.put(next.kid(), next);
+        }
+        others.forEach(k -> byKid.putIfAbsent(k.kid(), k));
+
+        String jwks = byKid.values().stream()
+                .map(k -> Jwks.json((PublicJwk<?>) Jwks.builder()
+                        .key((PublicKey) k.verificationKey())
+                        .id(k.kid())
+                        .build()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+        return new Snapshot(active, next, Map.copyOf(byKid), jwks);
+    }
+}
@@ -0,0 +1,39 @@
+package com.app.auth.config.jwt;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Resultado inmutable de una única verificación de firma y expiración de un JWT.
+ * Se obtiene con {@link JwtUtils#verify(String)} y se pasa hacia abajo para no
+ * volver a parsear el mismo token.
+ */
+@Getter
+public final class VerifiedToken {
+
+    private final String token;
+    private final String jti;
+    private final String subject;
+    private final Date issuedAt;
+    private final Date expiration;
+    private final Claims claims;
+
+    VerifiedToken(String token, Claims claims) {
+        this.token = token;
+        this.claims = claims;
+        this.jti = claims.getId();
+        this.subject = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() < System.currentTimeMillis();
+    }
+
+    public <T> T getClaim(String name, Class<T> type) {
+        return claims.get(name, type);
+    }
+}
@@ -0,0 +1,143 @@
+package com.app.auth.Controller;
+
+import com.app.auth.Repository.RoleRepository;
+import com.app.auth.Repository.UserRepository;
+import com.app.auth.Service.AuthService;
+import com.app.auth.Service.LoginAttemptService;
+import com.app.auth.Service.RefreshTokenService;
+import com.app.auth.Service.TokenRevocationService;
+import com.app.auth.Service.TokenValidationCache;
+import com.app.auth.Service.UserRegistrationService;
+import com.app.auth.config.AuthPhaseMetrics;
+import com.app.auth.config.SecurityConfig;
+import com.app.auth.config.jwt.AuthEntryPointJwt;
+import com.app.auth.config.jwt.AuthErrorWriter;
+import com.app.auth.config.jwt.JwtAuthenticationFilter;
+import com.app.auth.config.jwt.JwtUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.app.commons.hashing.PasswordHashingUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Alta con el {@link AuthService} y el {@link UserRegistrationService} reales: lo que llega al
+ * cliente mientras {@code CatalogSeeder} aún no ha creado {@code ROLE_USER}.
+ */
+@WebMvcTest(AuthController.class)
+@Import({SecurityConfig.class, AuthEntryPointJwt.class, AuthErrorWriter.class, AuthLinks.class,
+        AuthService.class, UserRegistrationService.class, AuthPhaseMetrics.class,
+        AuthControllerRegistrationTest.Infrastructure.class})
+class AuthControllerRegistrationTest {
+
+    @TestConfiguration
+    static class Infrastructure {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        ExecutorService tokenValidationExecutor() {
+            return Executors.newSingleThreadExecutor();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RoleRepository roleRepository;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @MockitoBean
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private TokenValidationCache tokenValidationCache;
+
+    @MockitoBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockitoBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private LoginAttemptService loginAttemptService;
+
+    @BeforeEach
+    void passThroughJwtFilter() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<FilterChain>getArgument(2).doFilter(
+                    invocation.<ServletRequest>getArgument(0), invocation.<ServletResponse>getArgument(1));
+            return null;
+        }).when(jwtAuthenticationFilter).doFilter(any(), any(), any());
+        when(passwordEncoder.encode(anyString())).thenReturn("{noop}secret");
+    }
+
+    @Test
+    void registrationAnswersServiceUnavailableUntilTheCatalogIsSeeded() throws Exception {
+        when(roleRepository.findByName(UserRegistrationService.DEFAULT_ROLE)).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\",\"email\":\"alice@example.com\",\"password\":\"secret\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.message").value("Catálogo de roles aún no disponible, reintente más tarde"));
+
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void saturatedHashingPoolAnswersServiceUnavailableWithRetryAfter() throws Exception {
+        when(passwordEncoder.encode(anyString())).thenThrow(new PasswordHashingUnavailableException(
+                "Demasiados cálculos de contraseña en curso, reintente más tarde", null));
+
+        mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"alice\",\"email\":\"alice@example.com\",\"password\":\"secret\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.message").value("Demasiados cálculos de contraseña en curso, reintente más tarde"));
+
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+}
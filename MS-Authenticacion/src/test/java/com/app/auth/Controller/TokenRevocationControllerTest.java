@@ -0,0 +1,151 @@
+package com.app.auth.Controller;
+
+import com.app.auth.Service.AuthService;
+import com.app.auth.Service.LoginAttemptService;
+import com.app.auth.Service.TokenRevocationService;
+import com.app.auth.config.AuthPhaseMetrics;
+import com.app.auth.config.SecurityConfig;
+import com.app.auth.config.jwt.AuthEntryPointJwt;
+import com.app.auth.config.jwt.AuthErrorWriter;
+import com.app.auth.config.jwt.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Logout y revocación administrativa con la cadena de seguridad real y los servicios simulados. */
+@WebMvcTest({TokenRevocationController.class, AuthController.class})
+@Import({SecurityConfig.class, AuthEntryPointJwt.class, AuthErrorWriter.class, AuthLinks.class,
+        TokenRevocationControllerTest.Metrics.class})
+class TokenRevocationControllerTest {
+
+    private static final String ADMIN = "ADMIN_PERMISSIONS";
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockitoBean
+    private AuthPhaseMetrics phaseMetrics;
+
+    @MockitoBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private LoginAttemptService loginAttemptService;
+
+    @BeforeEach
+    void passThroughJwtFilter() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<FilterChain>getArgument(2).doFilter(
+                    invocation.<ServletRequest>getArgument(0), invocation.<ServletResponse>getArgument(1));
+            return null;
+        }).when(jwtAuthenticationFilter).doFilter(any(), any(), any());
+    }
+
+    @Test
+    void logoutRevokesBothTokens() throws Exception {
+        mockMvc.perform(post("/api/auth/logout")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer access")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"refresh\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(authService).logout("access", "refresh");
+    }
+
+    @Test
+    void adminRevocationRequiresThePermission() throws Exception {
+        mockMvc.perform(post("/api/admin/tokens/revoke").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jti\":\"j1\"}")
+                        .with(user("alice").authorities(() -> "READ_PERMISSIONS")))
+                .andExpect(status().isForbidden());
+
+        verify(tokenRevocationService, never()).revokeJti(anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    void adminRevokesByJti() throws Exception {
+        Instant exp = Instant.now().plusSeconds(300);
+
+        mockMvc.perform(post("/api/admin/tokens/revoke").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jti\":\"j1\",\"expiresAt\":\"" + exp + "\",\"reason\":\"leak\"}")
+                        .with(user("root").authorities(() -> ADMIN)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Token revocado"));
+
+        verify(tokenRevocationService).revokeJti("j1", null, exp, "leak");
+    }
+
+    @Test
+    void pastExpiresAtIsABadRequest() throws Exception {
+        Instant past = Instant.now().minusSeconds(60);
+        doThrow(new IllegalArgumentException("expiresAt ya ha pasado"))
+                .when(tokenRevocationService).revokeJti(eq("j1"), isNull(), eq(past), anyString());
+
+        mockMvc.perform(post("/api/admin/tokens/revoke").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jti\":\"j1\",\"expiresAt\":\"" + past + "\"}")
+                        .with(user("root").authorities(() -> ADMIN)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("expiresAt ya ha pasado"));
+    }
+
+    @Test
+    void adminRevokesAllTokensOfAUser() throws Exception {
+        when(tokenRevocationService.revokeUser("bob", "admin")).thenReturn(3);
+
+        mockMvc.perform(post("/api/admin/tokens/users/bob/revoke")
+                        .with(user("root").authorities(() -> ADMIN)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.revokedRefreshTokens").value(3));
+    }
+}
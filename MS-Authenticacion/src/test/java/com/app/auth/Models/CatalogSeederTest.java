@@ -0,0 +1,79 @@
+package com.app.auth.Models;
+
+import com.app.auth.Service.UserRegistrationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import(UserRegistrationService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CatalogSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRegistrationService userRegistrationService;
+
+    @Test
+    void readinessIsDownAndRegistrationRetryableUntilTheCatalogIsSeeded() {
+        // Fuera del contexto: como bean sembraría en segundo plano con el ApplicationReadyEvent del test
+        CatalogSeeder catalogSeeder = new CatalogSeeder(jdbcTemplate, transactionTemplate, true, 10, 50);
+
+        assertThat(catalogSeeder.health().getStatus()).isEqualTo(Status.DOWN);
+        assertThatThrownBy(() -> userRegistrationService.defaultRole())
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        catalogSeeder.seed();
+
+        assertThat(catalogSeeder.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(userRegistrationService.defaultRole().getName()).isEqualTo(UserRegistrationService.DEFAULT_ROLE);
+    }
+
+    @Test
+    // Deja el catálogo sembrado: el otro test necesita una base nueva
+    @DirtiesContext
+    void failedAttemptIsRetriedUntilTheCatalogIsSeeded() {
+        JdbcTemplate flaky = spy(jdbcTemplate);
+        doThrow(new QueryTimeoutException("Lock wait timeout exceeded"))
+                .doCallRealMethod()
+                .when(flaky).execute(anyString());
+        CatalogSeeder catalogSeeder = new CatalogSeeder(flaky, transactionTemplate, true, 10, 50);
+
+        catalogSeeder.seedUntilDone();
+
+        assertThat(catalogSeeder.health().getStatus()).isEqualTo(Status.UP);
+        verify(flaky, times(2)).execute(anyString());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM roles WHERE name = ?", Integer.class,
+                UserRegistrationService.DEFAULT_ROLE)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.app.auth.Service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class LoginAttemptServiceTest {
+
+    private static final int MAX_FAILURES = 3;
+    /** Dos ventanas por franja (64 franjas). */
+    private static final int MAX_ENTRIES = 128;
+
+    private LoginAttemptService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new LoginAttemptService(mock(JdbcTemplate.class), mock(UserDetailsCache.class),
+                MAX_FAILURES, 900, 900, 500, MAX_ENTRIES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void accountIsLockedAfterMaxFailures() {
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            assertThat(service.isLocked("alice")).isFalse();
+            service.loginFailed("alice");
+        }
+
+        assertThat(service.isLocked("alice")).isTrue();
+    }
+
+    @Test
+    void successfulLoginClearsTheFailures() {
+        service.loginFailed("bob");
+        service.loginFailed("bob");
+        service.loginSucceeded("bob");
+        service.loginFailed("bob");
+
+        assertThat(service.isLocked("bob")).isFalse();
+    }
+
+    @Test
+    void fullStripeStillLocksTheVictim() {
+        List<String> sameStripe = namesInStripeOf("victim", 2 + MAX_FAILURES);
+        // El atacante llena la franja de la víctima con un fallo por nombre
+        service.loginFailed(sameStripe.get(0));
+        service.loginFailed(sameStripe.get(1));
+
+        // y sigue metiendo nombres nuevos entre cada intento contra la víctima
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            service.loginFailed("victim");
+            service.loginFailed(sameStripe.get(2 + i));
+        }
+
+        assertThat(service.isLocked("victim")).isTrue();
+    }
+
+    @Test
+    void lockedAccountsSurviveAFullStripe() {
+        List<String> sameStripe = namesInStripeOf("locked", 10);
+        for (int i = 0; i < MAX_FAILURES; i++) {
+            service.loginFailed("locked");
+        }
+
+        sameStripe.forEach(service::loginFailed);
+
+        assertThat(service.isLocked("locked")).isTrue();
+    }
+
+    private static List<String> namesInStripeOf(String username, int count) {
+        int stripe = LoginAttemptService.stripe(username);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; names.size() < count; i++) {
+            String candidate = "attacker" + i;
+            if (LoginAttemptService.stripe(candidate) == stripe) {
+                names.add(candidate);
+            }
+        }
+        return names;
+    }
+}
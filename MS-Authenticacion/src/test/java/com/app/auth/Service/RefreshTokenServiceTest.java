@@ -0,0 +1,206 @@
+package com.app.auth.Service;
+
+import com.app.auth.Dto.RefreshTokenRequest;
+import com.app.auth.Repository.RefreshTokenRepository;
+import com.app.auth.config.AuthPhaseMetrics;
+import com.app.auth.config.jwt.JwtUtils;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "auth.app.jwtRefresh=86400000",
+        "auth.app.jwtExpirationMs=900000"
+})
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import({RefreshTokenService.class, AuthService.class, UserRegistrationService.class})
+// Sin la transacción del test: cada llamada confirma (o no) la suya, como en producción
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoSpyBean
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private JwtUtils jwtUtils;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private AuthenticationManager authenticationManager;
+
+    @MockitoBean
+    private TokenValidationCache tokenValidationCache;
+
+    @MockitoBean
+    private LoginAttemptService loginAttemptService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockitoBean
+    private AuthPhaseMetrics phaseMetrics;
+
+    @MockitoBean(name = "tokenValidationExecutor")
+    private ExecutorService tokenValidationExecutor;
+
+    @Test
+    void rotationReplacesTheTokenWithinItsFamily() {
+        RefreshTokenService.IssuedRefreshToken first = refreshTokenService.issue("rotating");
+
+        RefreshTokenService.IssuedRefreshToken second = refreshTokenService.rotate(first.token());
+
+        assertThat(second.token()).isNotEqualTo(first.token());
+        assertThat(second.username()).isEqualTo("rotating");
+        assertThat(families("rotating")).hasSize(1);
+        assertThat(activeTokens("rotating")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_tokens "
+                + "WHERE username = ? AND replaced_by IS NOT NULL", Integer.class, "rotating")).isEqualTo(1);
+    }
+
+    @Test
+    void reusedTokenRevokesTheWholeFamilyAndTheRevocationIsCommitted() {
+        RefreshTokenService.IssuedRefreshToken first = refreshTokenService.issue("reused");
+        RefreshTokenService.IssuedRefreshToken second = refreshTokenService.rotate(first.token());
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first.token()))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token reutilizado; sesión revocada");
+
+        // noRollbackFor: la revocación sobrevive a la excepción que la acompaña
+        assertThat(activeTokens("reused")).isZero();
+        assertThatThrownBy(() -> refreshTokenService.rotate(second.token()))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token reutilizado; sesión revocada");
+    }
+
+    @Test
+    void expiredTokenIsRejectedWithoutRevokingTheFamily() {
+        RefreshTokenService.IssuedRefreshToken token = refreshTokenService.issue("expired");
+        jdbcTemplate.update("UPDATE refresh_tokens SET expires_at = ? WHERE username = ?",
+                Timestamp.from(Instant.now().minusSeconds(1)), "expired");
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token.token()))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token expirado");
+        assertThat(activeTokens("expired")).isEqualTo(1);
+    }
+
+    @Test
+    void unknownAndBlankTokensAreRejected() {
+        assertThatThrownBy(() -> refreshTokenService.rotate("not-a-token"))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token inválido");
+        assertThatThrownBy(() -> refreshTokenService.rotate(" "))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token vacío");
+    }
+
+    @Test
+    void losingAConcurrentRotationDropsTheSuccessorAndRevokesTheFamily() throws Exception {
+        RefreshTokenService.IssuedRefreshToken token = refreshTokenService.issue("racing");
+        AtomicBoolean raced = new AtomicBoolean();
+        AtomicReference<RefreshTokenService.IssuedRefreshToken> winner = new AtomicReference<>();
+        // Justo antes de la actualización condicional, otra petición con el mismo token rota y confirma
+        doAnswer(invocation -> {
+            if (raced.compareAndSet(false, true)) {
+                winner.set(CompletableFuture.supplyAsync(() -> refreshTokenService.rotate(token.token()))
+                        .get(10, TimeUnit.SECONDS));
+            }
+            // El repositorio es un proxy de interfaz: la respuesta por defecto del spy delega en él
+            return mockingDetails(refreshTokenRepository).getMockCreationSettings().getDefaultAnswer().answer(invocation);
+        }).when(refreshTokenRepository).markRotated(any(), any(), any());
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token.token()))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Refresh token reutilizado; sesión revocada");
+
+        // Queda el original y el sucesor del ganador, ambos revocados; el del perdedor se borró
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_tokens WHERE username = ?",
+                Integer.class, "racing")).isEqualTo(2);
+        assertThat(activeTokens("racing")).isZero();
+        assertThatThrownBy(() -> refreshTokenService.rotate(winner.get().token()))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void refreshForALockedUserRevokesAllItsTokens() {
+        RefreshTokenService.IssuedRefreshToken token = refreshTokenService.issue("locked");
+        refreshTokenService.issue("locked");
+        when(userDetailsService.loadUserByUsername("locked"))
+                .thenReturn(User.withUsername("locked").password("n/a").accountLocked(true).build());
+
+        assertThatThrownBy(() -> authService.refresh(new RefreshTokenRequest(token.token())))
+                .isInstanceOf(BadCredentialsException.class)
+                .hasMessage("Usuario bloqueado o deshabilitado");
+
+        // También el sucesor que acaba de emitir la rotación y la otra sesión
+        assertThat(activeTokens("locked")).isZero();
+    }
+
+    @Test
+    void refreshForADisabledUserRevokesAllItsTokens() {
+        RefreshTokenService.IssuedRefreshToken token = refreshTokenService.issue("disabled");
+        when(userDetailsService.loadUserByUsername("disabled"))
+                .thenReturn(User.withUsername("disabled").password("n/a").disabled(true).build());
+
+        assertThatThrownBy(() -> authService.refresh(new RefreshTokenRequest(token.token())))
+                .isInstanceOf(BadCredentialsException.class);
+
+        assertThat(activeTokens("disabled")).isZero();
+    }
+
+    private int activeTokens(String username) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_tokens WHERE username = ? AND revoked_at IS NULL",
+                Integer.class, username);
+    }
+
+    private List<String> families(String username) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT family_id FROM refresh_tokens WHERE username = ?",
+                String.class, username);
+    }
+}
@@ -0,0 +1,90 @@
+package com.app.auth.Service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevocationBloomFilterTest {
+
+    @Test
+    void sizingFollowsTheStandardFormulas() {
+        // m = -n ln p / (ln 2)^2 = 9586 bits, redondeado a palabras de 64; k = m/n ln 2 = 7
+        RevocationBloomFilter filter = RevocationBloomFilter.create(1_000, 0.01);
+
+        assertThat(filter.bitCount()).isEqualTo(9_600);
+        assertThat(filter.hashFunctions()).isEqualTo(7);
+    }
+
+    @Test
+    void degenerateSizesStillProduceAUsableFilter() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(0, 0.5);
+        filter.put("jti:only");
+
+        assertThat(filter.bitCount()).isGreaterThanOrEqualTo(64);
+        assertThat(filter.hashFunctions()).isGreaterThanOrEqualTo(1);
+        assertThat(filter.mightContain("jti:only")).isTrue();
+    }
+
+    @Test
+    void everyInsertedKeyIsFound() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(10_000, 0.001);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(TokenRevocationService.JTI_PREFIX + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(TokenRevocationService.JTI_PREFIX + i)).as("clave %d", i).isTrue();
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(TokenRevocationService.JTI_PREFIX + i);
+        }
+
+        int falsePositives = 0;
+        int probes = 100_000;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain(TokenRevocationService.USER_PREFIX + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat((double) falsePositives / probes).isLessThan(0.02);
+    }
+
+    @Test
+    void concurrentInsertsAreNotLost() throws Exception {
+        RevocationBloomFilter filter = RevocationBloomFilter.create(40_000, 0.001);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        filter.put("jti:" + thread + "-" + i);
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        for (int t = 0; t < 4; t++) {
+            for (int i = 0; i < 10_000; i++) {
+                assertThat(filter.mightContain("jti:" + t + "-" + i)).isTrue();
+            }
+        }
+    }
+}
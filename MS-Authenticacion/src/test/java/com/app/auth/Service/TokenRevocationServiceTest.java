@@ -0,0 +1,163 @@
+package com.app.auth.Service;
+
+import com.app.auth.Models.RevokedToken;
+import com.app.auth.Repository.RevokedTokenRepository;
+import com.app.auth.config.jwt.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+    private static final long JWT_EXPIRATION_MS = 900_000L;
+
+    private RevokedTokenRepository repository;
+    private RefreshTokenService refreshTokenService;
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(RevokedTokenRepository.class);
+        refreshTokenService = mock(RefreshTokenService.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(repository.streamActiveKeys(any())).thenAnswer(invocation -> Stream.empty());
+        when(repository.findById(any())).thenReturn(Optional.empty());
+
+        service = new TokenRevocationService(repository, refreshTokenService, transactionTemplate,
+                new SimpleMeterRegistry(), 1_000, 0.001, 30_000, JWT_EXPIRATION_MS);
+        service.init();
+    }
+
+    @Test
+    void unrevokedTokenNeverReachesTheStore() {
+        assertThat(service.isRevoked(token("fresh", "alice", Instant.now()))).isFalse();
+
+        verify(repository, never()).findById(any());
+    }
+
+    @Test
+    void revokedJtiIsRejectedUntilItsExpiration() {
+        // exp de un JWT tiene precisión de milisegundos como mucho
+        Instant exp = Instant.now().plusSeconds(300).truncatedTo(ChronoUnit.MILLIS);
+        VerifiedToken token = token("j1", "alice", Instant.now(), exp);
+
+        service.revoke(token, "logout");
+
+        RevokedToken stored = captureSaved();
+        assertThat(stored.getKey()).isEqualTo(TokenRevocationService.JTI_PREFIX + "j1");
+        assertThat(stored.getExpiresAt()).isEqualTo(exp);
+        assertThat(service.isRevoked(token)).isTrue();
+        assertThat(service.isRevoked(token("j2", "alice", Instant.now()))).isFalse();
+    }
+
+    @Test
+    void expiredTokenIsNotStored() {
+        service.revoke(token("old", "alice", Instant.now().minusSeconds(600), Instant.now().minusSeconds(1)), "logout");
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void pastExpiresAtIsRejected() {
+        assertThatThrownBy(() -> service.revokeJti("j1", null, Instant.now().minusSeconds(1), "admin"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expiresAt");
+
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void expiresAtIsCappedAtTheAccessTokenLifetime() {
+        Instant cap = Instant.now().plusMillis(JWT_EXPIRATION_MS);
+
+        service.revokeJti("j1", null, Instant.now().plus(Duration.ofDays(365)), "admin");
+
+        assertThat(captureSaved().getExpiresAt()).isCloseTo(cap, within(5, ChronoUnit.SECONDS));
+    }
+
+    @Test
+    void userRevocationCutsTokensIssuedUpToNow() {
+        Instant before = Instant.now().minusSeconds(10);
+
+        service.revokeUser("bob", "admin");
+
+        verify(refreshTokenService).revokeAllForUser("bob");
+        assertThat(captureSaved().getKey()).isEqualTo(TokenRevocationService.USER_PREFIX + "bob");
+        assertThat(service.isRevoked(token("a", "bob", before))).isTrue();
+        assertThat(service.isRevoked(token("b", "bob", Instant.now().plusSeconds(10)))).isFalse();
+        assertThat(service.isRevoked(token("c", "carol", before))).isFalse();
+    }
+
+    @Test
+    void rebuildPicksUpRevocationsFromOtherInstances() {
+        String key = TokenRevocationService.JTI_PREFIX + "remote";
+        VerifiedToken token = token("remote", "alice", Instant.now());
+        when(repository.streamActiveKeys(any())).thenAnswer(invocation -> Stream.of(key));
+        when(repository.findById(key)).thenReturn(Optional.of(RevokedToken.builder()
+                .key(key)
+                .expiresAt(Instant.now().plusSeconds(300))
+                .revokedAt(Instant.now())
+                .build()));
+
+        assertThat(service.isRevoked(token)).isFalse();
+
+        service.rebuild();
+
+        assertThat(service.isRevoked(token)).isTrue();
+    }
+
+    @Test
+    void revocationDuringRebuildSurvivesTheSwap() {
+        // La revocación llega mientras se lee la tabla y la lectura no la incluye
+        when(repository.streamActiveKeys(any())).thenAnswer(invocation -> {
+            service.revokeJti("racing", null, null, "admin");
+            return Stream.empty();
+        });
+
+        service.rebuild();
+
+        // isRevoked solo consulta la caché o la tabla si el filtro nuevo contiene la clave
+        assertThat(service.isRevoked(token("racing", null, Instant.now()))).isTrue();
+    }
+
+    private RevokedToken captureSaved() {
+        ArgumentCaptor<RevokedToken> saved = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(repository).save(saved.capture());
+        return saved.getValue();
+    }
+
+    private static VerifiedToken token(String jti, String subject, Instant issuedAt) {
+        return token(jti, subject, issuedAt, Instant.now().plusMillis(JWT_EXPIRATION_MS));
+    }
+
+    private static VerifiedToken token(String jti, String subject, Instant issuedAt, Instant expiration) {
+        VerifiedToken token = mock(VerifiedToken.class);
+        when(token.getJti()).thenReturn(jti);
+        when(token.getSubject()).thenReturn(subject);
+        when(token.getIssuedAt()).thenReturn(Date.from(issuedAt));
+        when(token.getExpiration()).thenReturn(Date.from(expiration));
+        when(token.isExpired()).thenReturn(expiration.isBefore(Instant.now()));
+        return token;
+    }
+}
@@ -0,0 +1,247 @@
+package com.app.auth.Service;
+
+import com.app.auth.Dto.UserImportFailure;
+import com.app.auth.Dto.UserImportReport;
+import com.app.auth.Models.Role;
+import com.app.auth.Repository.RoleRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "auth.import.chunkSize=3",
+        "auth.import.maxReportedFailures=5"
+})
+@ImportAutoConfiguration(JdbcTemplateAutoConfiguration.class)
+@Import({UserImportService.class, UserRegistrationService.class, UserImportServiceTest.Hashing.class})
+// Sin la transacción del test: cada lote confirma la suya, como en producción
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserImportServiceTest {
+
+    /** Prefijo de contraseña con el que el "hash" inserta antes el mismo username, como un alta concurrente. */
+    private static final String RACE = "race:";
+
+    @TestConfiguration
+    static class Hashing {
+        @Bean
+        PasswordEncoder hashingPasswordEncoder(JdbcTemplate jdbcTemplate) {
+            return new PasswordEncoder() {
+                @Override
+                public String encode(CharSequence rawPassword) {
+                    String raw = rawPassword.toString();
+                    if (raw.startsWith(RACE)) {
+                        String username = raw.substring(RACE.length());
+                        jdbcTemplate.update("INSERT INTO users (username, email, password, enabled, locked, failed_login_attempts) "
+                                + "VALUES (?, ?, 'n/a', TRUE, FALSE, 0)", username, username + "@concurrent.example.com");
+                    }
+                    return "{noop}" + raw;
+                }
+
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    return encodedPassword.equals("{noop}" + rawPassword);
+                }
+            };
+        }
+
+        @Bean(destroyMethod = "shutdown")
+        ExecutorService userImportExecutor() {
+            return Executors.newFixedThreadPool(2);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        if (!roleRepository.existsByName(UserRegistrationService.DEFAULT_ROLE)) {
+            Role role = new Role();
+            role.setName(UserRegistrationService.DEFAULT_ROLE);
+            roleRepository.save(role);
+        }
+    }
+
+    @Test
+    void validNdjsonRowsAreInsertedWithTheDefaultRole() throws IOException {
+        UserImportReport report = importNdjson("""
+                {"username":"nd1","email":"nd1@example.com","password":"p1"}
+                {"username":"nd2","email":"nd2@example.com","password":"p2"}
+
+                {"username":"nd3","email":"nd3@example.com","password":"p3"}
+                {"username":"nd4","email":"nd4@example.com","password":"p4"}
+                """);
+
+        // La línea en blanco no cuenta; cuatro filas en dos trozos de chunkSize=3
+        assertThat(report.getTotal()).isEqualTo(4);
+        assertThat(report.getImported()).isEqualTo(4);
+        assertThat(report.getFailures()).isEmpty();
+        assertThat(passwordOf("nd3")).isEqualTo("{noop}p3");
+        assertThat(rolesOf("nd1")).containsExactly(UserRegistrationService.DEFAULT_ROLE);
+    }
+
+    @Test
+    void csvColumnsFollowTheHeaderAndHonourQuotes() throws IOException {
+        UserImportReport report = importCsv("""
+                Email,Username,Password
+                csv1@example.com,csv1,"pa,ss ""quoted""\"
+                csv2@example.com , csv2 ,plain
+                """);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(passwordOf("csv1")).isEqualTo("{noop}pa,ss \"quoted\"");
+        assertThat(emailOf("csv2")).isEqualTo("csv2@example.com");
+    }
+
+    @Test
+    void malformedAndInvalidRowsAreReportedWithTheirLine() throws IOException {
+        UserImportReport report = importNdjson("""
+                {"username":"bad1","email":"bad1@example.com","password":"p"}
+                {not json
+                {"username":"","email":"bad2@example.com","password":"p"}
+                {"username":"bad3","email":"no-at-sign","password":"p"}
+                {"username":"bad4","email":"bad4@example.com"}
+                """);
+
+        assertThat(report.getTotal()).isEqualTo(5);
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getFailures())
+                .extracting(UserImportFailure::getLine, UserImportFailure::getUsername, UserImportFailure::getReason)
+                .containsExactly(
+                        tuple(2L, null, "Línea mal formada"),
+                        tuple(3L, "", "Username obligatorio"),
+                        tuple(4L, "bad3", "Email inválido"),
+                        tuple(5L, "bad4", "Password obligatorio"));
+    }
+
+    @Test
+    void duplicatesWithinTheFileKeepTheFirstRow() throws IOException {
+        UserImportReport report = importCsv("""
+                username,email,password
+                dup1,dup1@example.com,first
+                dup1,other@example.com,second
+                dup2,DUP1@example.com,third
+                """);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(passwordOf("dup1")).isEqualTo("{noop}first");
+        assertThat(report.getFailures())
+                .extracting(UserImportFailure::getLine, UserImportFailure::getReason)
+                .containsExactly(
+                        tuple(3L, "Username duplicado en el fichero"),
+                        tuple(4L, "Email duplicado en el fichero"));
+    }
+
+    @Test
+    void rowsAlreadyInTheDatabaseAreSkipped() throws IOException {
+        importCsv("""
+                username,email,password
+                existing,existing@example.com,p
+                """);
+
+        UserImportReport report = importCsv("""
+                username,email,password
+                existing,fresh@example.com,p
+                newcomer,Existing@Example.com,p
+                fresh,fresh2@example.com,p
+                """);
+
+        assertThat(report.getImported()).isEqualTo(1);
+        assertThat(report.getFailures())
+                .extracting(UserImportFailure::getLine, UserImportFailure::getReason)
+                .containsExactly(
+                        tuple(2L, "Username already exists"),
+                        tuple(3L, "Email already exists"));
+    }
+
+    @Test
+    void failedBatchIsRetriedRowByRow() throws IOException {
+        // La fila "racer" pasa la consulta de duplicados y otra alta le gana antes del lote
+        UserImportReport report = importCsv("""
+                username,email,password
+                batch1,batch1@example.com,p
+                racer,racer@example.com,race:racer
+                batch2,batch2@example.com,p
+                """);
+
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getFailures())
+                .extracting(UserImportFailure::getLine, UserImportFailure::getUsername, UserImportFailure::getReason)
+                .containsExactly(tuple(3L, "racer", "Username o email ya existe"));
+        assertThat(emailOf("racer")).isEqualTo("racer@concurrent.example.com");
+        assertThat(rolesOf("batch2")).containsExactly(UserRegistrationService.DEFAULT_ROLE);
+    }
+
+    @Test
+    void reportKeepsTheFirstFailuresAndFlagsTheRest() throws IOException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            body.append("{\"username\":\"trunc").append(i).append("\"}\n");
+        }
+
+        UserImportReport report = importNdjson(body.toString());
+
+        assertThat(report.getFailed()).isEqualTo(7);
+        assertThat(report.getFailures()).hasSize(5);
+        assertThat(report.isFailuresTruncated()).isTrue();
+    }
+
+    private UserImportReport importNdjson(String body) throws IOException {
+        return userImportService.importUsers(stream(body), UserImportService.Format.NDJSON);
+    }
+
+    private UserImportReport importCsv(String body) throws IOException {
+        return userImportService.importUsers(stream(body), UserImportService.Format.CSV);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String passwordOf(String username) {
+        return jdbcTemplate.queryForObject("SELECT password FROM users WHERE username = ?", String.class, username);
+    }
+
+    private String emailOf(String username) {
+        return jdbcTemplate.queryForObject("SELECT email FROM users WHERE username = ?", String.class, username);
+    }
+
+    private List<String> rolesOf(String username) {
+        return jdbcTemplate.queryForList("SELECT r.name FROM user_roles ur JOIN roles r ON r.id = ur.role_id "
+                + "JOIN users u ON u.id = ur.user_id WHERE u.username = ?", String.class, username);
+    }
+}
@@ -0,0 +1,90 @@
+package com.app.auth.Service;
+
+import com.app.auth.Exception.UserAlreadyExistsException;
+import com.app.auth.Models.Role;
+import com.app.auth.Models.User;
+import com.app.auth.Repository.RoleRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(UserRegistrationService.class)
+// Sin la transacción del test: cada alta confirma la suya, como en producción
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserRegistrationServiceTest {
+
+    @Autowired
+    private UserRegistrationService userRegistrationService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        if (!roleRepository.existsByName(UserRegistrationService.DEFAULT_ROLE)) {
+            Role role = new Role();
+            role.setName(UserRegistrationService.DEFAULT_ROLE);
+            roleRepository.save(role);
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void registrationIssuesOnlyTheTwoInserts() {
+        userRegistrationService.register(user("warmup", "warmup@example.com"));
+
+        statistics.clear();
+        User saved = userRegistrationService.register(user("alice", "alice@example.com"));
+
+        assertThat(saved.getId()).isNotNull();
+        // INSERT users + INSERT user_roles: sin existsBy ni búsqueda del rol
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+    }
+
+    @Test
+    void duplicateUsernameIsTranslatedFromTheUniqueIndex() {
+        userRegistrationService.register(user("bob", "bob@example.com"));
+
+        assertThatThrownBy(() -> userRegistrationService.register(user("bob", "other@example.com")))
+                .isInstanceOf(UserAlreadyExistsException.class)
+                .hasMessageContaining("Username already exists");
+    }
+
+    @Test
+    void duplicateEmailIsTranslatedFromTheUniqueIndex() {
+        userRegistrationService.register(user("carol", "carol@example.com"));
+
+        assertThatThrownBy(() -> userRegistrationService.register(user("carol2", "carol@example.com")))
+                .isInstanceOf(UserAlreadyExistsException.class)
+                .hasMessageContaining("Email already exists");
+    }
+
+    private static User user(String username, String email) {
+        return User.builder()
+                .username(username)
+                .email(email)
+                .password("{bcrypt}$2a$04$abcdefghijklmnopqrstuu")
+                .enabled(true)
+                .build();
+    }
+}
@@ -0,0 +1,240 @@
+package com.app.auth.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.app.auth.Service.TokenRevocationService;
+import com.app.auth.config.AuthPhaseMetrics;
+import com.app.auth.config.jwt.AuthErrorWriter;
+import com.app.auth.config.jwt.JwtAuthenticationFilter;
+import com.app.auth.config.jwt.JwtUtils;
+import com.app.auth.config.jwt.SigningKeyRing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Flood de tokens inválidos contra {@link JwtAuthenticationFilter}: cada invocación procesa
+ * {@value #FLOOD} tokens (un segundo a 10k tokens/s) repartidos entre firma ajena, expirados y
+ * mal formados. El resultado es el coste por token; multiplicado por {@value #FLOOD} da la
+ * fracción de un núcleo que consume un segundo de flood.
+ *
+ * <p>{@code floodLegacy} reproduce la ruta anterior (dos líneas ERROR por token y un
+ * {@code ObjectMapper} nuevo por respuesta, como hacía {@code AuthEntryPointJwt}); en producción
+ * {@code sendError} añadía además el despacho a {@code /error}. Los logs se formatean contra un
+ * appender que descarta la salida, así que se mide su coste sin inundar la consola.
+ * {@code renderLegacy}/{@code renderShared} miden solo la respuesta de error, sin la
+ * verificación de firma que domina el flood con tokens firmados por otra clave.
+ *
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *      org.openjdk.jmh.Main AuthErrorBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthErrorBenchmark {
+
+    static final int FLOOD = 10_000;
+
+    private static final Logger legacyLogger = LoggerFactory.getLogger("legacy.JwtAuthenticationFilter");
+    private static final FilterChain UNREACHABLE = (request, response) -> {
+        throw new IllegalStateException("Un token inválido no debe llegar a la cadena");
+    };
+
+    private JwtUtils jwtUtils;
+    private AuthErrorWriter errorWriter;
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest[] requests;
+    private String[] tokens;
+    private BulkResponse response;
+
+    /**
+     * El stream de {@link MockHttpServletResponse} escribe byte a byte; este escribe en bloque,
+     * como el de Tomcat, para no medir el mock.
+     */
+    static final class BulkResponse extends MockHttpServletResponse {
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+        private final ServletOutputStream stream = new ServletOutputStream() {
+            @Override
+            public void write(int b) {
+                body.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                body.write(b, off, len);
+            }
+
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return stream;
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            body.reset();
+        }
+    }
+
+    @Setup
+    public void setup() {
+        discardLogOutput();
+
+        SigningKeyRing ring = BenchmarkFixtures.keyRing(SigningKeyRing.Algorithm.RS256, BenchmarkFixtures.randomSecret());
+        jwtUtils = BenchmarkFixtures.jwtUtils(ring);
+        JwtUtils foreign = BenchmarkFixtures.jwtUtils(SigningKeyRing.Algorithm.RS256);
+
+        errorWriter = new AuthErrorWriter(new ObjectMapper(), new SimpleMeterRegistry(), 10_000);
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "errorWriter", errorWriter);
+        ReflectionTestUtils.setField(filter, "tokenRevocationService",
+                new TokenRevocationService(null, null, null, new SimpleMeterRegistry(), 100_000, 0.001, 30_000, 3_600_000));
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+        ReflectionTestUtils.setField(filter, "phaseMetrics", new AuthPhaseMetrics(new SimpleMeterRegistry(), true));
+
+        String badSignature = foreign.getToken(User.withUsername("attacker").password("n/a").authorities("READ_PERMISSIONS").build());
+        Date past = new Date(System.currentTimeMillis() - 60_000);
+        String expired = Jwts.builder()
+                .header().keyId(ring.getActiveKey().kid()).and()
+                .subject("victim")
+                .issuedAt(new Date(past.getTime() - 900_000))
+                .expiration(past)
+                .signWith(ring.getActiveKey().signingKey(), ring.getSignatureAlgorithm())
+                .compact();
+
+        tokens = new String[FLOOD];
+        requests = new MockHttpServletRequest[FLOOD];
+        for (int i = 0; i < FLOOD; i++) {
+            tokens[i] = switch (i % 3) {
+                case 0 -> badSignature;
+                case 1 -> expired;
+                default -> "garbage." + i + ".token";
+            };
+            requests[i] = new MockHttpServletRequest("GET", "/api/admin/users/import");
+            requests[i].setServletPath("/api/admin/users/import");
+            requests[i].addHeader("Authorization", "Bearer " + tokens[i]);
+        }
+        response = new BulkResponse();
+    }
+
+    // Formatea los eventos como en producción pero descarta los bytes
+    private static void discardLogOutput() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        ch.qos.logback.classic.Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.detachAndStopAllAppenders();
+        root.setLevel(Level.INFO);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %5level %pid --- [%15.15thread] %-40.40logger{39} : %msg%n");
+        encoder.start();
+        OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+        root.addAppender(appender);
+    }
+
+    private MockHttpServletResponse resetResponse() {
+        response.setCommitted(false);
+        response.reset();
+        return response;
+    }
+
+    private static void renderLegacy(MockHttpServletRequest request, MockHttpServletResponse response, Exception e)
+            throws Exception {
+        legacyLogger.error("Error al validar token: " + e.getMessage());
+        legacyLogger.error("Token inválido: {}", e.getMessage());
+
+        response.setContentType("application/json");
+        response.setStatus(401);
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", 401);
+        body.put("error", "Unauthorized");
+        body.put("message", "Token inválido");
+        body.put("path", request.getServletPath());
+        new ObjectMapper().writeValue(response.getOutputStream(), body);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLOOD)
+    public int floodLegacy() throws Exception {
+        int statuses = 0;
+        for (int i = 0; i < FLOOD; i++) {
+            MockHttpServletResponse res = resetResponse();
+            try {
+                jwtUtils.verify(tokens[i]);
+            } catch (Exception e) {
+                renderLegacy(requests[i], res, e);
+            }
+            statuses += res.getStatus();
+        }
+        return statuses;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FLOOD)
+    public int floodFilter() throws Exception {
+        int statuses = 0;
+        for (int i = 0; i < FLOOD; i++) {
+            MockHttpServletResponse res = resetResponse();
+            filter.doFilter(requests[i], res, UNREACHABLE);
+            statuses += res.getStatus();
+        }
+        return statuses;
+    }
+
+    // Solo la respuesta de error, sin verificar firma: aísla log + serialización
+    private static final IllegalArgumentException RENDER_CAUSE = new IllegalArgumentException("Invalid compact JWT string");
+
+    @Benchmark
+    public int renderLegacy() throws Exception {
+        MockHttpServletResponse res = resetResponse();
+        renderLegacy(requests[2], res, RENDER_CAUSE);
+        return res.getStatus();
+    }
+
+    @Benchmark
+    public int renderShared() throws Exception {
+        MockHttpServletResponse res = resetResponse();
+        errorWriter.write(requests[2], res, AuthErrorWriter.Reason.TOKEN_MALFORMED, RENDER_CAUSE.getMessage());
+        return res.getStatus();
+    }
+}
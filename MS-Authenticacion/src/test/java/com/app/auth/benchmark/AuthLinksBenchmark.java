@@ -0,0 +1,91 @@
+package com.app.auth.benchmark;
+
+import com.app.auth.Controller.AuthController;
+import com.app.auth.Controller.AuthLinks;
+import com.app.auth.Dto.AuthResponse;
+import com.app.auth.Dto.LoginRequest;
+import com.app.auth.Dto.TokenValidResponse;
+import com.app.auth.Dto.TokenValidationRequest;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.app.auth.Controller.AuthLinks.Route.*;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Enlaces de login y validate-token: {@code linkTo(methodOn(...))} por request frente a
+ * {@link AuthLinks} con rutas precalculadas. Lo relevante es {@code gc.alloc.rate.norm}
+ * (bytes por operación):
+ *
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *      org.openjdk.jmh.Main AuthLinksBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthLinksBenchmark {
+
+    private static final AuthLinks.RouteLink LOGIN_SELF = AuthLinks.self(LOGIN);
+    private static final AuthLinks.RouteLink LOGIN_LINK = AuthLinks.rel(LOGIN, "login");
+    private static final AuthLinks.RouteLink VALIDATE_TOKEN_SELF = AuthLinks.self(VALIDATE_TOKEN);
+    private static final AuthLinks.RouteLink VALIDATE_TOKEN_LINK = AuthLinks.rel(VALIDATE_TOKEN, "validate-token");
+
+    private AuthLinks authLinks;
+    private MockHttpServletRequest request;
+    private AuthResponse authResponse;
+    private TokenValidResponse validResponse;
+    private LoginRequest loginRequest;
+
+    @Setup
+    public void setup() {
+        authLinks = new AuthLinks();
+        request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setServerName("auth.internal");
+        request.setServerPort(9020);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        authResponse = AuthResponse.builder().token("header.payload.signature").username("benchmark").build();
+        validResponse = TokenValidResponse.builder().message("Token válido").build();
+        loginRequest = new LoginRequest();
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public EntityModel<AuthResponse> loginLinksMethodOn() {
+        return EntityModel.of(authResponse,
+                linkTo(methodOn(AuthController.class).login(loginRequest, null)).withSelfRel(),
+                linkTo(methodOn(AuthController.class).validateToken(new TokenValidationRequest(authResponse.getToken()), null)).withRel("validate-token"));
+    }
+
+    @Benchmark
+    public EntityModel<AuthResponse> loginLinksPrecomputed() {
+        return authLinks.model(request, authResponse, LOGIN_SELF, VALIDATE_TOKEN_LINK);
+    }
+
+    @Benchmark
+    public EntityModel<TokenValidResponse> validateTokenLinksMethodOn() {
+        return EntityModel.of(validResponse,
+                linkTo(methodOn(AuthController.class).validateToken(null, null)).withSelfRel(),
+                linkTo(methodOn(AuthController.class).login(null, null)).withRel("login"));
+    }
+
+    @Benchmark
+    public EntityModel<TokenValidResponse> validateTokenLinksPrecomputed() {
+        return authLinks.model(request, validResponse, VALIDATE_TOKEN_SELF, LOGIN_LINK);
+    }
+}
@@ -0,0 +1,98 @@
+package com.app.auth.benchmark;
+
+import com.app.auth.Controller.AuthController;
+import com.app.auth.Controller.AuthLinks;
+import com.app.auth.Service.AuthService;
+import com.app.auth.Service.TokenRevocationService;
+import com.app.auth.Service.TokenValidationCache;
+import com.app.auth.config.AuthPhaseMetrics;
+import com.app.auth.config.jwt.JwtUtils;
+import com.app.auth.config.jwt.SigningKeyRing;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * N llamadas a /validate-token frente a una llamada a /validate-tokens con N tokens,
+ * pasando por el dispatcher, la (de)serialización JSON y los enlaces HATEOAS (MockMvc,
+ * sin red: en producción cada llamada individual añade además un round trip).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchValidationBenchmark {
+
+    @Param({"1", "16", "128", "1024"})
+    public int batchSize;
+
+    private MockMvc mockMvc;
+    private ExecutorService executor;
+    private List<String> singleBodies;
+    private String batchBody;
+
+    @Setup
+    public void setup() {
+        JwtUtils jwtUtils = BenchmarkFixtures.jwtUtils(SigningKeyRing.Algorithm.RS256);
+
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        AuthService authService = new AuthService();
+        ReflectionTestUtils.setField(authService, "tokenValidationCache",
+                new TokenValidationCache(jwtUtils, new SimpleMeterRegistry(), 100_000, 900));
+        ReflectionTestUtils.setField(authService, "tokenValidationExecutor", executor);
+        // Sin repositorio: con el filtro vacío la comprobación de revocación no llega a la tabla
+        ReflectionTestUtils.setField(authService, "tokenRevocationService",
+                new TokenRevocationService(null, null, null, new SimpleMeterRegistry(), 100_000, 0.001, 30_000, 3_600_000));
+        ReflectionTestUtils.setField(authService, "maxBatchTokens", 1024);
+        ReflectionTestUtils.setField(authService, "batchChunkSize", 32);
+        AuthPhaseMetrics phaseMetrics = new AuthPhaseMetrics(new SimpleMeterRegistry(), true);
+        ReflectionTestUtils.setField(authService, "phaseMetrics", phaseMetrics);
+        mockMvc = MockMvcBuilders.standaloneSetup(new AuthController(authService, new AuthLinks(), phaseMetrics)).build();
+
+        singleBodies = new ArrayList<>(batchSize);
+        StringBuilder batch = new StringBuilder("{\"tokens\":[");
+        for (int i = 0; i < batchSize; i++) {
+            String token = jwtUtils.getToken(User.withUsername("user" + i).password("n/a").authorities("READ_PERMISSIONS").build());
+            singleBodies.add("{\"token\":\"" + token + "\"}");
+            batch.append(i == 0 ? "" : ",").append('"').append(token).append('"');
+        }
+        batchBody = batch.append("]}").toString();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdown();
+    }
+
+    @Benchmark
+    public int singleCalls() throws Exception {
+        int status = 0;
+        for (String body : singleBodies) {
+            status += mockMvc.perform(post("/api/auth/validate-token")
+                            .contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andReturn().getResponse().getStatus();
+        }
+        return status;
+    }
+
+    @Benchmark
+    public int batchedCall() throws Exception {
+        return mockMvc.perform(post("/api/auth/validate-tokens")
+                        .contentType(MediaType.APPLICATION_JSON).content(batchBody))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,170 @@
+package com.app.auth.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara un resultado JSON de JMH ({@code -rf json}) con el de referencia guardado en
+ * {@code benchmarks/}. Solo los bytes asignados por operación ({@code gc.alloc.rate.norm}, del
+ * profiler {@code -prof gc}) cuentan como regresión: no dependen de la máquina. El tiempo se muestra
+ * y se marca con {@code ~} si empeora más que la tolerancia y fuera de los intervalos de error de
+ * ambas ejecuciones, pero no hace fallar.
+ *
+ * <p>La referencia no es el JSON de JMH sino un resumen por benchmark (puntuación, error y bytes por
+ * operación), sin muestras ni rutas de la máquina que la grabó; {@code record} lo genera.
+ *
+ * <pre>
+ * java -cp ... com.app.auth.benchmark.BenchmarkBaseline target/jmh-result.json benchmarks/baseline.json 5 false
+ * java -cp ... com.app.auth.benchmark.BenchmarkBaseline target/jmh-result.json benchmarks/baseline.json 5 false record
+ * </pre>
+ */
+public final class BenchmarkBaseline {
+
+    private static final String ALLOC = "gc.alloc.rate.norm";
+    // Unos pocos bytes de diferencia son ruido del profiler, no una asignación nueva
+    private static final double ALLOC_SLACK_BYTES = 8;
+
+    private record Score(String mode, String unit, double score, double error, double allocBytes, double allocError) {
+    }
+
+    private BenchmarkBaseline() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("uso: BenchmarkBaseline <resultado.json> <referencia.json> [tolerancia %] [fallar] [record]");
+            System.exit(2);
+        }
+        File current = new File(args[0]);
+        File baseline = new File(args[1]);
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 5;
+        boolean failOnRegression = args.length > 3 && Boolean.parseBoolean(args[3]);
+        if (args.length > 4 && "record".equals(args[4])) {
+            record(current, baseline);
+            return;
+        }
+        if (!baseline.isFile()) {
+            System.out.println("Sin referencia en " + baseline + "; grabarla con -Djmh.record=record");
+            return;
+        }
+
+        Map<String, Score> now = read(current);
+        Map<String, Score> before = read(baseline);
+        int regressions = 0;
+        System.out.printf("%-62s %12s %12s %8s %10s %10s%n", "benchmark", "referencia", "actual", "dif %", "B/op ref", "B/op");
+        for (Map.Entry<String, Score> entry : now.entrySet()) {
+            Score ref = before.get(entry.getKey());
+            Score cur = entry.getValue();
+            if (ref == null) {
+                System.out.printf("%-62s %12s %12.4g %8s %10s %10.0f  (nuevo)%n",
+                        entry.getKey(), "-", cur.score(), "-", "-", cur.allocBytes());
+                continue;
+            }
+            double delta = (cur.score() - ref.score()) / ref.score() * 100;
+            boolean slower = slower(ref, cur, delta, tolerance);
+            boolean allocates = cur.allocBytes() > ref.allocBytes()
+                    + Math.max(ref.allocBytes() * tolerance / 100, ref.allocError() + cur.allocError() + ALLOC_SLACK_BYTES);
+            if (allocates) {
+                regressions++;
+            }
+            System.out.printf("%-62s %12.4g %12.4g %+8.1f %10.0f %10.0f %s%s%n", entry.getKey(), ref.score(),
+                    cur.score(), delta, ref.allocBytes(), cur.allocBytes(), allocates ? "<<" : "", slower ? "~" : "");
+        }
+        System.out.printf("%d regresiones de asignación por encima del %.0f%%%n", regressions, tolerance);
+        if (regressions > 0 && failOnRegression) {
+            System.exit(1);
+        }
+    }
+
+    /** En throughput empeora al bajar, en el resto de modos (tiempo) al subir; solo si los errores no se solapan. */
+    private static boolean slower(Score ref, Score cur, double delta, double tolerance) {
+        boolean throughput = "thrpt".equals(cur.mode());
+        if (throughput ? delta >= -tolerance : delta <= tolerance) {
+            return false;
+        }
+        return throughput
+                ? cur.score() + cur.error() < ref.score() - ref.error()
+                : cur.score() - cur.error() > ref.score() + ref.error();
+    }
+
+    /** Escribe el resumen de un resultado de JMH como nueva referencia. */
+    private static void record(File current, File baseline) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        JsonNode runs = mapper.readTree(current);
+        ObjectNode root = mapper.createObjectNode();
+        if (!runs.isEmpty()) {
+            JsonNode first = runs.get(0);
+            root.put("jmhVersion", first.path("jmhVersion").asText());
+            root.put("vmVersion", first.path("vmVersion").asText());
+            root.put("forks", first.path("forks").asInt());
+            root.put("warmup", first.path("warmupIterations").asInt() + " x " + first.path("warmupTime").asText());
+            root.put("measurement", first.path("measurementIterations").asInt() + " x " + first.path("measurementTime").asText());
+        }
+        ObjectNode results = root.putObject("results");
+        read(current).forEach((name, score) -> {
+            ObjectNode result = results.putObject(name);
+            result.put("mode", score.mode());
+            result.put("unit", score.unit());
+            result.put("score", score.score());
+            result.put("scoreError", score.error());
+            result.put("allocBytes", score.allocBytes());
+            result.put("allocError", score.allocError());
+        });
+        mapper.writeValue(baseline, root);
+        System.out.println("Referencia grabada en " + baseline + " (" + results.size() + " benchmarks)");
+    }
+
+    private static Map<String, Score> read(File file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file);
+        Map<String, Score> scores = new LinkedHashMap<>();
+        if (root.has("results")) {
+            for (Iterator<Map.Entry<String, JsonNode>> it = root.path("results").fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> entry = it.next();
+                JsonNode result = entry.getValue();
+                scores.put(entry.getKey(), new Score(result.path("mode").asText(), result.path("unit").asText(),
+                        result.path("score").asDouble(), result.path("scoreError").asDouble(),
+                        result.path("allocBytes").asDouble(Double.NaN), result.path("allocError").asDouble()));
+            }
+            return scores;
+        }
+        for (JsonNode run : root) {
+            String name = run.path("benchmark").asText().replace("com.app.auth.benchmark.", "");
+            String mode = run.path("mode").asText();
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode alloc = run.path("secondaryMetrics").path(ALLOC);
+            scores.put(name + params(run.path("params")) + " " + mode, new Score(mode,
+                    primary.path("scoreUnit").asText(),
+                    primary.path("score").asDouble(),
+                    // NaN con una sola iteración
+                    finiteOrZero(primary.path("scoreError").asDouble()),
+                    alloc.isMissingNode() ? Double.NaN : alloc.path("score").asDouble(),
+                    alloc.isMissingNode() ? 0 : finiteOrZero(alloc.path("scoreError").asDouble())));
+        }
+        return scores;
+    }
+
+    private static double finiteOrZero(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+
+    private static String params(JsonNode params) {
+        if (params.isMissingNode() || params.isEmpty()) {
+            return "";
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> param = it.next();
+            sorted.put(param.getKey(), param.getValue().asText());
+        }
+        return sorted.toString();
+    }
+}
@@ -0,0 +1,72 @@
+package com.app.auth.benchmark;
+
+import com.app.auth.Models.Permission;
+import com.app.auth.Models.Role;
+import com.app.auth.Models.User;
+import com.app.auth.config.jwt.JwtUtils;
+import com.app.auth.config.jwt.SigningKeyRing;
+import io.jsonwebtoken.io.Encoders;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.SecureRandom;
+import java.util.HashSet;
+import java.util.Set;
+
+/** Construye los componentes JWT sin contexto de Spring para los benchmarks. */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static String randomSecret() {
+        byte[] bytes = new byte[64];
+        new SecureRandom().nextBytes(bytes);
+        return Encoders.BASE64.encode(bytes);
+    }
+
+    static SigningKeyRing keyRing(SigningKeyRing.Algorithm algorithm, String secret) {
+        SigningKeyRing ring = new SigningKeyRing(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(ring, "algorithm", algorithm);
+        ReflectionTestUtils.setField(ring, "legacySecret", secret);
+        ReflectionTestUtils.setField(ring, "acceptLegacyHmac", true);
+        ReflectionTestUtils.setField(ring, "ephemeralKeys", true);
+        ReflectionTestUtils.setField(ring, "jwtExpirationMs", 3_600_000L);
+        ReflectionTestUtils.setField(ring, "rotationHours", 24L);
+        ReflectionTestUtils.setField(ring, "keyStoreLocation", "");
+        ReflectionTestUtils.invokeMethod(ring, "init");
+        return ring;
+    }
+
+    static JwtUtils jwtUtils(SigningKeyRing ring) {
+        JwtUtils jwtUtils = new JwtUtils(ring);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        ReflectionTestUtils.invokeMethod(jwtUtils, "init");
+        return jwtUtils;
+    }
+
+    static JwtUtils jwtUtils(SigningKeyRing.Algorithm algorithm) {
+        return jwtUtils(keyRing(algorithm, randomSecret()));
+    }
+
+    /**
+     * Usuario con roles del catálogo de {@code CatalogSeeder}: ROLE_USER y ROLE_ADMIN, que comparten
+     * el permiso de lectura (getAuthorities lo devuelve dos veces).
+     */
+    static User user(String username) {
+        Permission read = Permission.builder().id(1L).name("READ_PERMISSIONS").build();
+        Permission write = Permission.builder().id(2L).name("WRITE_PERMISSIONS").build();
+        Permission admin = Permission.builder().id(3L).name("ADMIN_PERMISSIONS").build();
+        Role userRole = Role.builder().id(1L).name("ROLE_USER").permissions(new HashSet<>(Set.of(read))).build();
+        Role adminRole = Role.builder().id(2L).name("ROLE_ADMIN")
+                .permissions(new HashSet<>(Set.of(read, write, admin))).build();
+        return User.builder()
+                .id(1L)
+                .username(username)
+                .email(username + "@example.com")
+                .password("n/a")
+                .roles(new HashSet<>(Set.of(userRole, adminRole)))
+                .enabled(true)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.app.auth.benchmark;
+
+import com.app.auth.config.jwt.JwtUtils;
+import com.app.auth.config.jwt.SigningKeyRing;
+import com.app.auth.config.jwt.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Firma/verificación de JWT: ruta anterior (clave y parser reconstruidos en cada llamada,
+ * dos parseos por request en el filtro, HS256) frente a la ruta con clave y parser
+ * precalculados, para cada algoritmo del {@link SigningKeyRing}.
+ *
+ * <pre>
+ * mvn -q test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *      org.openjdk.jmh.Main JwtUtilsBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+    @Param({"HS256", "RS256", "EdDSA"})
+    public SigningKeyRing.Algorithm algorithm;
+
+    private String secret;
+    private JwtUtils jwtUtils;
+    private UserDetails user;
+    private String token;
+    private String legacyToken;
+
+    @Setup
+    public void setup() {
+        secret = BenchmarkFixtures.randomSecret();
+        jwtUtils = BenchmarkFixtures.jwtUtils(BenchmarkFixtures.keyRing(algorithm, secret));
+
+        user = User.withUsername("benchmark").password("n/a").authorities("READ_PERMISSIONS").build();
+        token = jwtUtils.getToken(user);
+        legacyToken = signLegacy();
+    }
+
+    private SecretKey legacyKey() {
+        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+    }
+
+    private Claims legacyParse(String jwt) {
+        return Jwts.parser().verifyWith(legacyKey()).build().parseSignedClaims(jwt).getPayload();
+    }
+
+    @Benchmark
+    public String signLegacy() {
+        Date issuedAt = new Date();
+        return Jwts.builder()
+                .subject(user.getUsername())
+                .issuedAt(issuedAt)
+                .expiration(new Date(issuedAt.getTime() + 3_600_000))
+                .signWith(legacyKey(), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtUtils.getToken(user);
+    }
+
+    // getUsernameFromToken + isTokenValid tal como los usaba JwtAuthenticationFilter
+    @Benchmark
+    public boolean verifyLegacy() {
+        String username = legacyParse(legacyToken).getSubject();
+        Claims claims = legacyParse(legacyToken);
+        return username.equals(user.getUsername()) && !claims.getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean verify() {
+        VerifiedToken verified = jwtUtils.verify(token);
+        return jwtUtils.isTokenValid(verified, user);
+    }
+}
@@ -0,0 +1,152 @@
+package com.app.auth.benchmark;
+
+import com.app.auth.Models.User;
+import com.app.auth.Service.TokenRevocationService;
+import com.app.auth.config.AuthPhaseMetrics;
+import com.app.auth.config.jwt.AuthErrorWriter;
+import com.app.auth.config.jwt.JwtAuthenticationFilter;
+import com.app.auth.config.jwt.JwtUtils;
+import com.app.auth.config.jwt.PrincipalRevalidationTracker;
+import com.app.auth.config.jwt.SigningKeyRing;
+import com.app.auth.config.jwt.VerifiedToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ruta de seguridad de cada request protegida, con el mismo {@code JwtUtils} que arranca el servicio:
+ * emisión ({@code getToken}), {@code validateToken}, las dos variantes de {@code isTokenValid} y una
+ * pasada completa de {@link JwtAuthenticationFilter} (cabecera, firma, revocación, principal y
+ * contexto de seguridad) con un {@link UserDetailsService} simulado que devuelve el usuario en memoria.
+ *
+ * <p>{@code filterStateless} es el modo por defecto (authorities desde los claims, revalidación no
+ * vencida); {@code filterUserDetails} carga el principal en cada request
+ * ({@code auth.app.statelessPrincipal=false}). Resultados de referencia en {@code benchmarks/}.
+ *
+ * <pre>
+ * mvn -B -Pbenchmark -DskipTests verify
+ * </pre>
+ */
+@State(Scope.Thread)
+// Solo tiempo medio: el throughput es su inverso. Tres forks para que el error incluya la varianza entre JVMs
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class SecurityPathBenchmark {
+
+    @Param({"HS256", "RS256", "EdDSA"})
+    public SigningKeyRing.Algorithm algorithm;
+
+    private static final FilterChain PASS = (request, response) -> {
+    };
+
+    private JwtUtils jwtUtils;
+    private User user;
+    private String token;
+    private VerifiedToken verified;
+    private JwtAuthenticationFilter statelessFilter;
+    private JwtAuthenticationFilter userDetailsFilter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() throws Exception {
+        jwtUtils = BenchmarkFixtures.jwtUtils(BenchmarkFixtures.keyRing(algorithm, BenchmarkFixtures.randomSecret()));
+        user = BenchmarkFixtures.user("benchmark");
+        token = jwtUtils.getToken(user);
+        verified = jwtUtils.verify(token);
+
+        UserDetailsService userDetailsService = username -> {
+            if (!user.getUsername().equals(username)) {
+                throw new UsernameNotFoundException(username);
+            }
+            return user;
+        };
+        statelessFilter = filter(userDetailsService, true);
+        userDetailsFilter = filter(userDetailsService, false);
+
+        request = new MockHttpServletRequest("GET", "/api/auth/profile");
+        request.setServletPath("/api/auth/profile");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new AuthErrorBenchmark.BulkResponse();
+        for (JwtAuthenticationFilter filter : new JwtAuthenticationFilter[]{statelessFilter, userDetailsFilter}) {
+            if (filterPass(filter) != 200) {
+                throw new IllegalStateException("El filtro rechazó un token válido: " + response.getStatus());
+            }
+        }
+    }
+
+    private JwtAuthenticationFilter filter(UserDetailsService userDetailsService, boolean statelessPrincipal) {
+        PrincipalRevalidationTracker tracker = new PrincipalRevalidationTracker();
+        ReflectionTestUtils.setField(tracker, "revalidationMs", 300_000L);
+        ReflectionTestUtils.setField(tracker, "maxEntries", 100_000);
+        tracker.markValidated(user.getUsername());
+
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "userDetailsService", userDetailsService);
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "revalidationTracker", tracker);
+        ReflectionTestUtils.setField(filter, "errorWriter",
+                new AuthErrorWriter(new ObjectMapper(), new SimpleMeterRegistry(), 10_000));
+        ReflectionTestUtils.setField(filter, "tokenRevocationService",
+                new TokenRevocationService(null, null, null, new SimpleMeterRegistry(), 100_000, 0.001, 30_000, 3_600_000));
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", statelessPrincipal);
+        ReflectionTestUtils.setField(filter, "phaseMetrics", new AuthPhaseMetrics(new SimpleMeterRegistry(), true));
+        return filter;
+    }
+
+    @Benchmark
+    public String getToken() {
+        return jwtUtils.getToken(user);
+    }
+
+    @Benchmark
+    public VerifiedToken validateToken() {
+        return jwtUtils.validateToken(token);
+    }
+
+    // Verifica la firma en cada llamada
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtUtils.isTokenValid(token, user);
+    }
+
+    // Sobre un token ya verificado, como lo usa el filtro
+    @Benchmark
+    public boolean isTokenValidVerified() {
+        return jwtUtils.isTokenValid(verified, user);
+    }
+
+    @Benchmark
+    public int filterStateless() throws Exception {
+        return filterPass(statelessFilter);
+    }
+
+    @Benchmark
+    public int filterUserDetails() throws Exception {
+        return filterPass(userDetailsFilter);
+    }
+
+    private int filterPass(JwtAuthenticationFilter filter) throws Exception {
+        // OncePerRequestFilter marca la request como filtrada; sin limpiar, la segunda pasada no haría nada
+        request.clearAttributes();
+        response.reset();
+        try {
+            filter.doFilter(request, response, PASS);
+            return response.getStatus();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
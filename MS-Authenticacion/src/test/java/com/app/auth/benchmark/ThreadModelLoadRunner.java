@@ -0,0 +1,250 @@
+package com.app.auth.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.Context;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Prueba de carga de lazo cerrado: concurrencia a la que se satura Tomcat con hilos de plataforma
+ * (200 por defecto) frente a hilos virtuales. Cada request reproduce el perfil de MS-Usuarios y
+ * ms-execise: una llamada bloqueante con {@link RestTemplate} sobre el {@link HttpClient} del JDK
+ * a un servicio de autenticación simulado ({@code load.authLatencyMs}) y una consulta que retiene
+ * una de las {@code load.dbPool} conexiones durante {@code load.dbMs}.
+ *
+ * <p>Con hilos de plataforma el techo es {@code maxThreads / latencia}; con hilos virtuales pasa a
+ * ser el pool de conexiones ({@code dbPool / dbMs}) o la CPU, que son los siguientes recursos que hay
+ * que dimensionar. Cliente, stub y servidor comparten la máquina: con pocos núcleos conviene subir
+ * {@code load.authLatencyMs} para que el techo de los hilos de plataforma quede por debajo del de CPU.
+ *
+ * <pre>
+ * mvn -q test-compile
+ * java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *      -Dload.seconds=5 com.app.auth.benchmark.ThreadModelLoadRunner
+ * </pre>
+ */
+public final class ThreadModelLoadRunner {
+
+    private static final int AUTH_LATENCY_MS = Integer.getInteger("load.authLatencyMs", 500);
+    private static final int DB_MS = Integer.getInteger("load.dbMs", 2);
+    private static final int DB_POOL = Integer.getInteger("load.dbPool", 20);
+    private static final int SECONDS = Integer.getInteger("load.seconds", 5);
+    private static final int[] CONCURRENCY = Arrays.stream(
+                    System.getProperty("load.concurrency", "50,100,200,400,800,1600").split(","))
+            .mapToInt(Integer::parseInt)
+            .toArray();
+
+    // Referencia fuerte: JUL olvida la configuración de los loggers recolectados
+    private static final java.util.logging.Logger TOMCAT_LOG = java.util.logging.Logger.getLogger("org.apache");
+
+    private record Result(double throughput, long p50Micros, long p99Micros, long errors) {
+    }
+
+    private ThreadModelLoadRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        TOMCAT_LOG.setLevel(Level.SEVERE);
+        HttpServer auth = startAuthStub();
+        String authUrl = "http://localhost:" + auth.getAddress().getPort() + "/api/auth/validate-token";
+        System.out.printf("auth %d ms, consulta %d ms, pool %d conexiones, %d s por punto%n",
+                AUTH_LATENCY_MS, DB_MS, DB_POOL, SECONDS);
+        System.out.printf("%12s %24s %24s%n", "concurrencia", "plataforma req/s (p99)", "virtual req/s (p99)");
+
+        HttpClient loadClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        try {
+            for (int concurrency : CONCURRENCY) {
+                Result platform = run(false, concurrency, authUrl, loadClient);
+                Result virtual = run(true, concurrency, authUrl, loadClient);
+                System.out.printf("%12d %15.0f (%5d ms) %15.0f (%5d ms)%s%n", concurrency,
+                        platform.throughput(), platform.p99Micros() / 1000,
+                        virtual.throughput(), virtual.p99Micros() / 1000,
+                        platform.errors() + virtual.errors() > 0
+                                ? "  errores " + platform.errors() + "/" + virtual.errors() : "");
+            }
+        } finally {
+            auth.stop(0);
+        }
+    }
+
+    private static HttpServer startAuthStub() throws IOException {
+        // Sin TCP_NODELAY el stub suma los 40 ms del ACK retardado a cada respuesta, y por encima
+        // de 200 conexiones inactivas cierra las que el cliente espera reutilizar
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        System.setProperty("sun.net.httpserver.maxIdleConnections", "10000");
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 4096);
+        byte[] body = "{\"message\":\"Token válido\"}".getBytes(StandardCharsets.UTF_8);
+        server.createContext("/api/auth/validate-token", exchange -> {
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                Thread.sleep(AUTH_LATENCY_MS);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        // Hilos de plataforma a propósito: LeftOverInputStream.read del HttpServer del JDK es
+        // synchronized y, al leer un cuerpo chunked, fija el hilo virtual a su carrier (con un
+        // solo núcleo, todo el scheduler)
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        return server;
+    }
+
+    /** Mismo handler que un endpoint protegido: validar el token remoto y consultar la base de datos. */
+    private static final class ProtectedServlet extends HttpServlet {
+        private final RestTemplate restTemplate;
+        private final String authUrl;
+        private final Semaphore connections = new Semaphore(DB_POOL, true);
+
+        ProtectedServlet(RestTemplate restTemplate, String authUrl) {
+            this.restTemplate = restTemplate;
+            this.authUrl = authUrl;
+        }
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            try {
+                restTemplate.postForEntity(authUrl, Map.of("token", "t"), String.class);
+            } catch (RestClientException e) {
+                response.sendError(HttpServletResponse.SC_BAD_GATEWAY);
+                return;
+            }
+            try {
+                connections.acquire();
+                try {
+                    Thread.sleep(DB_MS);
+                } finally {
+                    connections.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+            response.setContentType("text/plain");
+            try (OutputStream out = response.getOutputStream()) {
+                out.write('k');
+            }
+        }
+    }
+
+    private static Result run(boolean virtualThreads, int concurrency, String authUrl, HttpClient loadClient)
+            throws Exception {
+        HttpClient.Builder outbound = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2));
+        if (virtualThreads) {
+            outbound.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        HttpClient outboundClient = outbound.build();
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory(outboundClient));
+
+        File baseDir = Files.createTempDirectory("tomcat-load").toFile();
+        Tomcat tomcat = new Tomcat();
+        tomcat.setBaseDir(baseDir.getAbsolutePath());
+        tomcat.setPort(0);
+        tomcat.getConnector().setProperty("maxConnections", "10000");
+        if (virtualThreads) {
+            // Lo mismo que hace Spring Boot con spring.threads.virtual.enabled=true
+            tomcat.getConnector().getProtocolHandler().setExecutor(new VirtualThreadExecutor("tomcat-handler-"));
+        }
+        Context context = tomcat.addContext("", baseDir.getAbsolutePath());
+        Tomcat.addServlet(context, "protected", new ProtectedServlet(restTemplate, authUrl));
+        context.addServletMappingDecoded("/protected", "protected");
+        tomcat.start();
+
+        try {
+            URI uri = URI.create("http://localhost:" + tomcat.getConnector().getLocalPort() + "/protected");
+            load(loadClient, uri, Math.min(concurrency, 50), Duration.ofSeconds(1)); // calentamiento
+            return load(loadClient, uri, concurrency, Duration.ofSeconds(SECONDS));
+        } finally {
+            stop(tomcat);
+            outboundClient.close();
+        }
+    }
+
+    private static Result load(HttpClient client, URI uri, int concurrency, Duration duration) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+        AtomicBoolean running = new AtomicBoolean(true);
+        LongAdder errors = new LongAdder();
+        List<long[]> samples = new ArrayList<>(concurrency);
+        List<int[]> counts = new ArrayList<>(concurrency);
+        // Cada cliente completa como mucho una request por latencia del servicio de auth
+        int maxSamples = (int) (duration.toMillis() / Math.max(1, AUTH_LATENCY_MS)) + 16;
+
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                long[] latencies = new long[maxSamples];
+                int[] count = new int[1];
+                samples.add(latencies);
+                counts.add(count);
+                clients.submit(() -> {
+                    while (running.get()) {
+                        long t0 = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.increment();
+                        } else if (count[0] < latencies.length) {
+                            latencies[count[0]++] = (System.nanoTime() - t0) / 1000;
+                        }
+                    }
+                    return null;
+                });
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+        int total = counts.stream().mapToInt(c -> c[0]).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int i = 0; i < samples.size(); i++) {
+            System.arraycopy(samples.get(i), 0, all, offset, counts.get(i)[0]);
+            offset += counts.get(i)[0];
+        }
+        Arrays.sort(all);
+        long p50 = total > 0 ? all[(int) (total * 0.50)] : 0;
+        long p99 = total > 0 ? all[Math.min(total - 1, (int) (total * 0.99))] : 0;
+        return new Result(total / elapsedSeconds, p50, p99, errors.sum());
+    }
+
+    private static void stop(Tomcat tomcat) throws LifecycleException {
+        tomcat.stop();
+        tomcat.destroy();
+    }
+}
@@ -0,0 +1,47 @@
+package com.app.auth.benchmark;
+
+import com.app.auth.Models.User;
+import com.app.auth.Models.UserSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code getAuthorities()} de la entidad {@link User} (recorre roles y permisos y crea un
+ * {@code SimpleGrantedAuthority} por permiso en cada llamada) frente al {@link UserSnapshot} que
+ * guarda la caché de {@code UserDetailsService}. Lo llaman {@code getToken} y el filtro en modo
+ * {@code statelessPrincipal=false}.
+ *
+ * <pre>
+ * mvn -B -Pbenchmark -DskipTests verify -Djmh.includes=UserAuthoritiesBenchmark
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class UserAuthoritiesBenchmark {
+
+    private User user;
+    private UserSnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        user = BenchmarkFixtures.user("benchmark");
+        snapshot = UserSnapshot.of(user);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> entity() {
+        return user.getAuthorities();
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> snapshot() {
+        return snapshot.getAuthorities();
+    }
+}
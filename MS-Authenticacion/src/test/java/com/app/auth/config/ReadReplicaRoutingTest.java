@@ -0,0 +1,206 @@
+package com.app.auth.config;
+
+import com.app.auth.Models.User;
+import com.app.auth.Repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.app.commons.replica.ReplicaLagMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dos H2 en memoria sin replicación entre ellas: lo que solo existe en una de las dos dice de dónde
+ * se leyó. El latido se "replica" a mano y el sondeo se invoca desde el test (intervalo de una hora).
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "auth.datasource.replica.enabled=true",
+        "auth.datasource.replica.url=jdbc:h2:mem:routing-replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "auth.datasource.replica.driver-class-name=org.h2.Driver",
+        "auth.datasource.replica.username=sa",
+        "auth.datasource.replica.password=",
+        "auth.datasource.replica.maxLagMs=7200000",
+        "auth.datasource.replica.heartbeatIntervalMs=3600000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ReadReplicaConfig.class, ReadReplicaRoutingTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReadReplicaRoutingTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        copySchemaToReplica();
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndTheRestToThePrimary() {
+        insertIntoReplica("only-in-replica");
+        replicateHeartbeat(System.currentTimeMillis());
+
+        assertThat(readOnly(() -> userRepository.findByEmail("only-in-replica@example.com"))).isPresent();
+        assertThat(readWrite(() -> userRepository.findByEmail("only-in-replica@example.com"))).isEmpty();
+        // Sin transacción propia: los métodos CRUD heredan readOnly de SimpleJpaRepository...
+        assertThat(userRepository.findAll()).extracting(User::getUsername).contains("only-in-replica");
+        // ... y findByUsername abre una de lectura-escritura para leer siempre del primario
+        assertThat(userRepository.findByUsername("only-in-replica")).isEmpty();
+    }
+
+    @Test
+    void laggingReplicaSendsReadsToThePrimary() {
+        insertIntoReplica("stale-replica");
+        double before = routed("replica_lagging");
+
+        replicateHeartbeat(System.currentTimeMillis() - 3 * 3_600_000L);
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(readOnly(() -> userRepository.findByEmail("stale-replica@example.com"))).isEmpty();
+        assertThat(routed("replica_lagging")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void readsAfterOwnWriteStayOnThePrimary() {
+        replicateHeartbeat(System.currentTimeMillis());
+
+        authenticate("alice");
+        readWrite(() -> userRepository.save(user("alice-new")));
+        // La réplica no la tiene: solo el primario puede devolverla
+        assertThat(readOnly(() -> userRepository.findByEmail("alice-new@example.com"))).isPresent();
+
+        authenticate("bob");
+        assertThat(readOnly(() -> userRepository.findByEmail("alice-new@example.com"))).isEmpty();
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinTheUser() {
+        insertIntoReplica("carol-replica");
+        replicateHeartbeat(System.currentTimeMillis());
+
+        authenticate("carol");
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.executeWithoutResult(status -> {
+            userRepository.save(user("carol-discarded"));
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnly(() -> userRepository.findByEmail("carol-replica@example.com"))).isPresent();
+    }
+
+    private <T> T readOnly(Supplier<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> work.get());
+    }
+
+    private <T> T readWrite(Supplier<T> work) {
+        return new TransactionTemplate(transactionManager).execute(status -> work.get());
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, List.of()));
+    }
+
+    private double routed(String reason) {
+        return meterRegistry.get("db.routing").tag("reason", reason).counter().count();
+    }
+
+    /** Lo que haría la replicación con la fila del latido, y el sondeo que la lee. */
+    private void replicateHeartbeat(long beatMs) {
+        replica.update("DELETE FROM " + ReplicaLagMonitor.TABLE);
+        replica.update("INSERT INTO " + ReplicaLagMonitor.TABLE + " (id, beat_ms) VALUES (1, ?)", beatMs);
+        lagMonitor.probe();
+    }
+
+    private void copySchemaToReplica() {
+        Boolean copied = replica.queryForObject(
+                "SELECT COUNT(*) > 0 FROM information_schema.tables"
+                        + " WHERE table_schema = 'public' AND table_name = 'users'", Boolean.class);
+        if (Boolean.TRUE.equals(copied)) {
+            return;
+        }
+        for (String statement : primary.queryForList("SCRIPT NODATA", String.class)) {
+            if (!statement.startsWith("CREATE USER")) {
+                replica.execute(statement);
+            }
+        }
+    }
+
+    private void insertIntoReplica(String username) {
+        replica.update("INSERT INTO users (username, email, enabled, locked, failed_login_attempts) "
+                + "VALUES (?, ?, TRUE, FALSE, 0)", username, username + "@example.com");
+    }
+
+    private static User user(String username) {
+        return User.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("n/a")
+                .roles(new HashSet<>())
+                .enabled(true)
+                .build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.app.auth.config;
+
+import com.app.auth.Controller.AuthController;
+import com.app.auth.Controller.AuthLinks;
+import com.app.auth.Dto.TokenBatchValidationResponse;
+import com.app.auth.Service.AuthService;
+import com.app.auth.Service.LoginAttemptService;
+import com.app.auth.config.jwt.AuthEntryPointJwt;
+import com.app.auth.config.jwt.AuthErrorWriter;
+import com.app.auth.config.jwt.JwtAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reglas de acceso de {@link SecurityConfig} sin base de datos ni JWT: el filtro JWT es un mock
+ * que deja pasar la petición y la identidad la pone {@code user(...)}.
+ */
+@WebMvcTest(AuthController.class)
+@Import({SecurityConfig.class, AuthEntryPointJwt.class, AuthErrorWriter.class, AuthLinks.class,
+        SecurityConfigTest.Metrics.class})
+class SecurityConfigTest {
+
+    private static final String BATCH = "{\"tokens\":[\"a\",\"b\"]}";
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AuthService authService;
+
+    @MockitoBean
+    private AuthPhaseMetrics phaseMetrics;
+
+    @MockitoBean
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @MockitoBean
+    private UserDetailsService userDetailsService;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    @MockitoBean
+    private LoginAttemptService loginAttemptService;
+
+    @BeforeEach
+    void passThroughJwtFilter() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<FilterChain>getArgument(2).doFilter(
+                    invocation.<ServletRequest>getArgument(0), invocation.<ServletResponse>getArgument(1));
+            return null;
+        }).when(jwtAuthenticationFilter).doFilter(any(), any(), any());
+        when(authService.validateTokens(anyList())).thenReturn(TokenBatchValidationResponse.builder()
+                .results(List.of())
+                .build());
+    }
+
+    @Test
+    void batchValidationRejectsAnonymousCallers() throws Exception {
+        mockMvc.perform(post("/api/auth/validate-tokens").contentType(MediaType.APPLICATION_JSON).content(BATCH))
+                .andExpect(status().isUnauthorized());
+
+        verify(authService, never()).validateTokens(anyList());
+    }
+
+    @Test
+    void batchValidationRejectsUsersWithoutTheServicePermission() throws Exception {
+        mockMvc.perform(post("/api/auth/validate-tokens").contentType(MediaType.APPLICATION_JSON).content(BATCH)
+                        .with(user("alice").authorities(() -> "READ_PERMISSIONS")))
+                .andExpect(status().isForbidden());
+
+        verify(authService, never()).validateTokens(anyList());
+    }
+
+    @Test
+    void batchValidationAcceptsServiceAccounts() throws Exception {
+        mockMvc.perform(post("/api/auth/validate-tokens").contentType(MediaType.APPLICATION_JSON).content(BATCH)
+                        .with(user("ms-usuarios").authorities(() -> SecurityConfig.TOKEN_INTROSPECTION)))
+                .andExpect(status().isOk());
+
+        verify(authService).validateTokens(List.of("a", "b"));
+    }
+
+    @Test
+    void prometheusScrapeChallengesAnonymousCallers() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().exists(HttpHeaders.WWW_AUTHENTICATE));
+    }
+
+    @Test
+    void prometheusScrapeRejectsUsersWithoutTheMetricsPermission() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(user("alice").authorities(() -> "ADMIN_PERMISSIONS")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void prometheusScrapeAcceptsTheMetricsAccount() throws Exception {
+        // El slice no registra actuator: pasar la seguridad acaba en 404
+        mockMvc.perform(get("/actuator/prometheus").with(user("prometheus").authorities(() -> SecurityConfig.METRICS_SCRAPE)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void singleValidationStaysPublic() throws Exception {
+        mockMvc.perform(post("/api/auth/validate-token").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"token\":\"a\"}"))
+                .andExpect(status().isOk());
+    }
+}
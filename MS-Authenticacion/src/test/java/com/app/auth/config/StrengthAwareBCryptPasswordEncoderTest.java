@@ -0,0 +1,32 @@
+package com.app.auth.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StrengthAwareBCryptPasswordEncoderTest {
+
+    private final StrengthAwareBCryptPasswordEncoder encoder = new StrengthAwareBCryptPasswordEncoder(6);
+
+    @Test
+    void lowerCostIsUpgraded() {
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("secret"))).isTrue();
+    }
+
+    @Test
+    void higherCostIsDowngraded() {
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("secret"))).isTrue();
+    }
+
+    @Test
+    void sameCostIsKept() {
+        assertThat(encoder.upgradeEncoding(encoder.encode("secret"))).isFalse();
+    }
+
+    @Test
+    void unknownFormatIsKept() {
+        assertThat(encoder.upgradeEncoding(null)).isFalse();
+        assertThat(encoder.upgradeEncoding("plain")).isFalse();
+    }
+}
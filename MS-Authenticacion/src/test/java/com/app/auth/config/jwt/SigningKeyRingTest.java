@@ -0,0 +1,55 @@
+package com.app.auth.config.jwt;
+
+import io.jsonwebtoken.io.Encoders;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.SecureRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SigningKeyRingTest {
+
+    @Test
+    void asymmetricAlgorithmWithoutKeyStoreFailsAtStartup() {
+        SigningKeyRing ring = ring(SigningKeyRing.Algorithm.RS256, false);
+
+        assertThatThrownBy(() -> ReflectionTestUtils.invokeMethod(ring, "init"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("auth.jwt.keyStore.location");
+    }
+
+    @Test
+    void ephemeralKeysAreOnlyGeneratedWhenExplicitlyEnabled() {
+        SigningKeyRing ring = ring(SigningKeyRing.Algorithm.EdDSA, true);
+
+        ReflectionTestUtils.invokeMethod(ring, "init");
+
+        assertThat(ring.getActiveKey().kid()).isNotNull();
+        assertThat(ring.getJwksJson()).contains(ring.getActiveKey().kid());
+    }
+
+    @Test
+    void hmacNeedsNoKeyStore() {
+        SigningKeyRing ring = ring(SigningKeyRing.Algorithm.HS256, false);
+
+        ReflectionTestUtils.invokeMethod(ring, "init");
+
+        assertThat(ring.getActiveKey().kid()).isNull();
+    }
+
+    private static SigningKeyRing ring(SigningKeyRing.Algorithm algorithm, boolean ephemeralKeys) {
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        SigningKeyRing ring = new SigningKeyRing(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(ring, "algorithm", algorithm);
+        ReflectionTestUtils.setField(ring, "legacySecret", Encoders.BASE64.encode(secret));
+        ReflectionTestUtils.setField(ring, "jwtExpirationMs", 900_000L);
+        ReflectionTestUtils.setField(ring, "rotationHours", 24L);
+        ReflectionTestUtils.setField(ring, "keyStoreLocation", "");
+        ReflectionTestUtils.setField(ring, "ephemeralKeys", ephemeralKeys);
+        return ring;
+    }
+}
@@ -1,6 +1,13 @@
 package com.app.usuarios.Config;
 
 import com.app.usuarios.Config.Dto.TokenResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,20 +16,144 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Validación remota de tokens contra MS-Authenticacion con dos atajos:
+ * <ul>
+ *   <li>Caché por SHA-256 del token: un resultado positivo vale hasta {@code expiryMarginMs} antes
+ *   del {@code exp} (y no más de {@code positiveMaxTtlMs}, que acota cuánto tarda en verse una
+ *   revocación); uno negativo, {@code negativeTtlMs}. Los errores de comunicación no se guardan.</li>
+ *   <li>Single-flight: las validaciones simultáneas del mismo token esperan a la llamada que ya está
+ *   en curso en lugar de lanzar otra.</li>
+ * </ul>
+ * Métricas: {@code cache.gets{cache=authValidation}} para la tasa de aciertos,
+ * {@code auth.client.validations.coalesced} y {@code auth.client.validations.remote{outcome}}.
+ */
 @Service
 public class AuthClientService {
+
+    private enum Verdict { VALID, INVALID }
+
+    private record CachedVerdict(Verdict verdict, long expiresAtMs) {
+    }
+
     private final RestTemplate restTemplate;
     @Value("${auth.url.jwtMicro}")
     private String AUTH_SERVICE_URL;
 
-    public AuthClientService(RestTemplate restTemplate) {
+    private final Cache<String, CachedVerdict> verdicts;
+    // El cálculo va fuera del lock: Caffeine.get() haría la llamada remota dentro de un
+    // compute de ConcurrentHashMap, que bloquea otras claves y fija el hilo virtual
+    private final ConcurrentMap<String, CompletableFuture<Verdict>> inFlight = new ConcurrentHashMap<>();
+    private final long expiryMarginMs;
+    private final long positiveMaxTtlMs;
+    private final long negativeTtlMs;
+    private final Counter coalesced;
+    private final Counter remoteValid;
+    private final Counter remoteInvalid;
+    private final Counter remoteError;
+
+    public AuthClientService(RestTemplate restTemplate,
+                             MeterRegistry meterRegistry,
+                             @Value("${auth.cache.validation.maxSize:100000}") long maxSize,
+                             @Value("${auth.cache.validation.expiryMarginMs:5000}") long expiryMarginMs,
+                             @Value("${auth.cache.validation.positiveMaxTtlMs:30000}") long positiveMaxTtlMs,
+                             @Value("${auth.cache.validation.negativeTtlMs:10000}") long negativeTtlMs) {
         this.restTemplate = restTemplate;
+        this.expiryMarginMs = expiryMarginMs;
+        this.positiveMaxTtlMs = positiveMaxTtlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.verdicts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, CachedVerdict>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedVerdict value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMs() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedVerdict value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedVerdict value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verdicts, "authValidation");
+        this.coalesced = Counter.builder("auth.client.validations.coalesced")
+                .description("Validaciones que esperaron a una llamada remota ya en curso para el mismo token")
+                .register(meterRegistry);
+        this.remoteValid = remote(meterRegistry, "valid");
+        this.remoteInvalid = remote(meterRegistry, "invalid");
+        this.remoteError = remote(meterRegistry, "error");
     }
 
+    private static Counter remote(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("auth.client.validations.remote")
+                .description("Llamadas de validación enviadas a MS-Authenticacion")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * {@code true} si MS-Authenticacion da el token por bueno; {@link BadCredentialsException} si lo
+     * rechaza y {@link RuntimeException} si no se pudo preguntar.
+     */
     public boolean validateToken(String token) {
+        String key = digest(token);
+        CachedVerdict cached = verdicts.getIfPresent(key);
+        Verdict verdict = cached != null && cached.expiresAtMs() > System.currentTimeMillis()
+                ? cached.verdict()
+                : resolve(key, token);
+        if (verdict == Verdict.INVALID) {
+            throw new BadCredentialsException("Token inválido");
+        }
+        return true;
+    }
+
+    private Verdict resolve(String key, String token) {
+        CompletableFuture<Verdict> mine = new CompletableFuture<>();
+        CompletableFuture<Verdict> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            Verdict verdict = callRemote(token);
+            long expiresAt = verdict == Verdict.VALID ? positiveExpiry(token) : System.currentTimeMillis() + negativeTtlMs;
+            if (expiresAt > System.currentTimeMillis()) {
+                verdicts.put(key, new CachedVerdict(verdict, expiresAt));
+            }
+            mine.complete(verdict);
+            return verdict;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private Verdict callRemote(String token) {
         try {
             // Crea el cuerpo de la solicitud
             Map<String, String> requestBody = new HashMap<>();
@@ -35,14 +166,47 @@ public class AuthClientService {
                     TokenResponse.class
             );
 
-            return response.getStatusCode().is2xxSuccessful();
+            if (response.getStatusCode().is2xxSuccessful()) {
+                remoteValid.increment();
+                return Verdict.VALID;
+            }
+            remoteInvalid.increment();
+            return Verdict.INVALID;
 
         } catch (HttpClientErrorException e) {
             // Maneja errores 4xx
             if (e.getStatusCode() == HttpStatus.UNAUTHORIZED) {
-                throw new BadCredentialsException("Token inválido");
+                remoteInvalid.increment();
+                return Verdict.INVALID;
             }
+            remoteError.increment();
             throw new RuntimeException("Error de comunicación con el servicio de autenticación");
+        } catch (RuntimeException e) {
+            remoteError.increment();
+            throw e;
+        }
+    }
+
+    /** Hasta poco antes del {@code exp} del token; sin {@code exp} legible no se guarda. */
+    private long positiveExpiry(String token) {
+        try {
+            Object exp = LocalJwtVerifier.unverifiedClaims(token).get("exp");
+            if (!(exp instanceof Number seconds)) {
+                return 0;
+            }
+            long now = System.currentTimeMillis();
+            return Math.min(TimeUnit.SECONDS.toMillis(seconds.longValue()) - expiryMarginMs, now + positiveMaxTtlMs);
+        } catch (JwtException e) {
+            return 0;
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
         }
     }
 }
@@ -0,0 +1,26 @@
+package com.app.usuarios.Config;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Usuario de la petición tal como lo validó {@link JwtAuthFilter}, una vez por petición. Los
+ * controladores lo declaran como parámetro (ver {@link WebMvcConfig}) en lugar de volver a validar
+ * el token: cada validación repetida puede ser otra llamada a MS-Authenticacion.
+ */
+public record AuthenticatedIdentity(String username, List<String> authorities) {
+
+    static final String REQUEST_ATTRIBUTE = AuthenticatedIdentity.class.getName();
+
+    static AuthenticatedIdentity from(Authentication authentication) {
+        return new AuthenticatedIdentity(authentication.getName(), authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+    }
+
+    public boolean hasAuthority(String authority) {
+        return authorities.contains(authority);
+    }
+}
@@ -1,24 +1,42 @@
 package com.app.usuarios.Config;
 
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.ArrayList;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    /** Cuándo se consulta además a MS-Authenticacion ({@code auth.validation.remote}). */
+    public enum RemoteValidation {
+        /** Nunca: un token revocado sigue valiendo aquí hasta su exp. */
+        NEVER,
+        /** Solo si no hay clave local para el token, p. ej. con MS-Authenticacion caído al arrancar. */
+        UNKNOWN_KEY,
+        /** Siempre tras la verificación local, para respetar revocaciones; lo mal firmado o caducado no sale del proceso. */
+        ALWAYS
+    }
+
+    private final LocalJwtVerifier jwtVerifier;
     private final AuthClientService authClientService;
+    private final RemoteValidation remoteValidation;
 
-    public JwtAuthFilter(AuthClientService authClientService) {
+    public JwtAuthFilter(LocalJwtVerifier jwtVerifier, AuthClientService authClientService,
+                         @Value("${auth.validation.remote:UNKNOWN_KEY}") RemoteValidation remoteValidation) {
+        this.jwtVerifier = jwtVerifier;
         this.authClientService = authClientService;
+        this.remoteValidation = remoteValidation;
     }
 
     @Override
@@ -28,19 +46,71 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
-            String token = authHeader.replace("Bearer ", "");
-            if (authClientService.validateToken(token)) {
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken("usuario", null, new ArrayList<>());
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-
-            } else {
+            String token = authHeader.substring("Bearer ".length());
+            Authentication authentication;
+            try {
+                authentication = authenticate(token);
+            } catch (AuthServiceUnavailableException e) {
+                // Token válido localmente pero sin poder comprobar su revocación: reintentable, no un 500
+                logger.warn("Validación remota no disponible: " + e.getMessage());
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                return;
+            }
+            if (authentication == null) {
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
             }
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            request.setAttribute(AuthenticatedIdentity.REQUEST_ATTRIBUTE, AuthenticatedIdentity.from(authentication));
         }
 
         filterChain.doFilter(request, response);
     }
-}
 
+    private Authentication authenticate(String token) {
+        Authentication authentication;
+        try {
+            authentication = jwtVerifier.authenticate(token);
+        } catch (LocalJwtVerifier.UnknownSigningKeyException e) {
+            if (remoteValidation == RemoteValidation.NEVER) {
+                logger.debug("Token rechazado: " + e.getMessage());
+                return null;
+            }
+            try {
+                return validatedRemotely(token) ? jwtVerifier.authenticateUnverified(token) : null;
+            } catch (AuthServiceUnavailableException unavailable) {
+                // Sin clave local ni respuesta remota no hay nada que avale el token
+                logger.debug("Token con clave desconocida sin validación remota: " + unavailable.getMessage());
+                return null;
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Token rechazado: " + e.getMessage());
+            return null;
+        }
+        if (remoteValidation == RemoteValidation.ALWAYS && !validatedRemotely(token)) {
+            return null;
+        }
+        return authentication;
+    }
+
+    /**
+     * {@code false} si MS-Authenticacion rechaza el token; {@link AuthServiceUnavailableException} si
+     * no se le pudo preguntar (timeout, circuito abierto, sin hueco o error de comunicación).
+     */
+    private boolean validatedRemotely(String token) {
+        try {
+            return authClientService.validateToken(token);
+        } catch (BadCredentialsException e) {
+            return false;
+        } catch (RuntimeException e) {
+            throw new AuthServiceUnavailableException(e);
+        }
+    }
+
+    private static final class AuthServiceUnavailableException extends RuntimeException {
+        AuthServiceUnavailableException(RuntimeException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
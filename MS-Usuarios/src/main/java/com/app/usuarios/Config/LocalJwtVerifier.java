@@ -0,0 +1,197 @@
+package com.app.usuarios.Config;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Jwk;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Verifica en proceso los JWT de MS-Authenticacion: firma con la clave pública de su
+ * {@code /.well-known/jwks.json} indicada por el {@code kid} (o, en tokens sin {@code kid}, con el
+ * secreto HMAC compartido {@code auth.app.jwtSecret}) y expiración. El principal es el
+ * {@code sub} y las authorities salen de los claims {@code roles} y {@code perms}.
+ *
+ * <p>El JWKS se descarga al ver un {@code kid} desconocido, como mucho una vez cada
+ * {@code auth.jwt.jwksMinRefreshMs}, y se renueva cuando pasa de {@code auth.jwt.jwksMaxAgeMs}.
+ * Si la descarga falla se siguen usando las claves que ya había. Las revocaciones solo las
+ * conoce MS-Authenticacion: ver {@link JwtAuthFilter.RemoteValidation}.
+ */
+@Component
+public class LocalJwtVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalJwtVerifier.class);
+    static final String ROLES_CLAIM = "roles";
+    static final String PERMISSIONS_CLAIM = "perms";
+    private static final ObjectMapper PAYLOAD_MAPPER = new ObjectMapper();
+
+    /** Ni el JWKS ni el secreto heredado tienen la clave del token: solo MS-Authenticacion puede decidir. */
+    public static class UnknownSigningKeyException extends JwtException {
+        public UnknownSigningKeyException(String message) {
+            super(message);
+        }
+    }
+
+    private final RestTemplate restTemplate;
+    private final String jwksUrl;
+    private final Key legacyHmacKey;
+    private final long minRefreshMs;
+    private final long maxAgeMs;
+    private final JwtParser parser;
+    // El catálogo de roles y permisos es pequeño: se reutiliza la misma instancia por nombre
+    private final ConcurrentMap<String, GrantedAuthority> authorityCache = new ConcurrentHashMap<>();
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private volatile Map<String, Key> keys = Map.of();
+    private volatile long fetchedAt;
+    private long lastAttemptAt;
+
+    public LocalJwtVerifier(RestTemplate restTemplate,
+                            @Value("${auth.url.jwks}") String jwksUrl,
+                            @Value("${auth.app.jwtSecret:}") String legacySecret,
+                            @Value("${auth.jwt.acceptLegacyHmac:true}") boolean acceptLegacyHmac,
+                            @Value("${auth.jwt.jwksMinRefreshMs:30000}") long minRefreshMs,
+                            @Value("${auth.jwt.jwksMaxAgeMs:300000}") long maxAgeMs,
+                            @Value("${auth.jwt.clockSkewSeconds:30}") long clockSkewSeconds) {
+        this.restTemplate = restTemplate;
+        this.jwksUrl = jwksUrl;
+        this.legacyHmacKey = acceptLegacyHmac && StringUtils.hasText(legacySecret)
+                ? Keys.hmacShaKeyFor(Decoders.BASE64.decode(legacySecret))
+                : null;
+        this.minRefreshMs = minRefreshMs;
+        this.maxAgeMs = maxAgeMs;
+        // El parser es inmutable y thread-safe: se construye una vez y resuelve la clave por kid
+        this.parser = Jwts.parser()
+                .keyLocator(new LocatorAdapter<Key>() {
+                    @Override
+                    protected Key locate(JwsHeader header) {
+                        return resolve(header.getKeyId(), header.getAlgorithm());
+                    }
+                })
+                .clockSkewSeconds(clockSkewSeconds)
+                .build();
+    }
+
+    /**
+     * Verifica firma y expiración y construye la autenticación a partir de los claims.
+     * Propaga las excepciones de jjwt; {@link UnknownSigningKeyException} si no hay clave con la que verificar.
+     */
+    public UsernamePasswordAuthenticationToken authenticate(String token) {
+        return toAuthentication(parser.parseSignedClaims(token).getPayload());
+    }
+
+    /**
+     * Autenticación a partir del payload sin verificar la firma: solo para tokens que
+     * MS-Authenticacion acaba de dar por buenos.
+     */
+    public UsernamePasswordAuthenticationToken authenticateUnverified(String token) {
+        return toAuthentication(unverifiedClaims(token));
+    }
+
+    /** Claims del payload sin comprobar la firma; {@link MalformedJwtException} si no es un JWS legible. */
+    static Map<String, Object> unverifiedClaims(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length != 3) {
+            throw new MalformedJwtException("El token no es un JWS compacto");
+        }
+        try {
+            byte[] json = Decoders.BASE64URL.decode(parts[1]);
+            return PAYLOAD_MAPPER.readValue(new String(json, StandardCharsets.UTF_8),
+                    new TypeReference<Map<String, Object>>() { });
+        } catch (Exception e) {
+            throw new MalformedJwtException("Payload ilegible: " + e.getMessage(), e);
+        }
+    }
+
+    private UsernamePasswordAuthenticationToken toAuthentication(Map<String, ?> claims) {
+        Object subject = claims.get("sub");
+        if (!(subject instanceof String username) || username.isEmpty()) {
+            throw new MalformedJwtException("El token no tiene sub");
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        addAuthorities(claims.get(ROLES_CLAIM), authorities);
+        addAuthorities(claims.get(PERMISSIONS_CLAIM), authorities);
+        return UsernamePasswordAuthenticationToken.authenticated(username, null, authorities);
+    }
+
+    private void addAuthorities(Object names, List<GrantedAuthority> authorities) {
+        if (names instanceof Collection<?> collection) {
+            for (Object name : collection) {
+                authorities.add(authorityCache.computeIfAbsent(String.valueOf(name), SimpleGrantedAuthority::new));
+            }
+        }
+    }
+
+    private Key resolve(String kid, String alg) {
+        if (kid == null) {
+            if (legacyHmacKey != null && alg != null && alg.startsWith("HS")) {
+                return legacyHmacKey;
+            }
+            throw new UnknownSigningKeyException("Token sin kid y sin secreto HMAC aceptado");
+        }
+        if (System.currentTimeMillis() - fetchedAt > maxAgeMs) {
+            // Caducado pero utilizable: lo renueva un solo hilo y el resto sigue con lo que hay
+            refresh(false);
+        }
+        Key key = keys.get(kid);
+        if (key == null) {
+            refresh(true);
+            key = keys.get(kid);
+        }
+        if (key == null) {
+            throw new UnknownSigningKeyException("Clave de firma desconocida: " + kid);
+        }
+        return key;
+    }
+
+    private void refresh(boolean wait) {
+        if (wait) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            return;
+        }
+        try {
+            long now = System.currentTimeMillis();
+            if (now - lastAttemptAt < minRefreshMs) {
+                return; // otro hilo acaba de intentarlo: un kid inventado no genera una descarga por request
+            }
+            lastAttemptAt = now;
+            String json = restTemplate.getForObject(jwksUrl, String.class);
+            Map<String, Key> fresh = new HashMap<>();
+            for (Jwk<?> jwk : Jwks.setParser().build().parse(json)) {
+                if (jwk.getId() != null) {
+                    fresh.put(jwk.getId(), jwk.toKey());
+                }
+            }
+            keys = Map.copyOf(fresh);
+            fetchedAt = now;
+            logger.info("JWKS actualizado desde {}: kids {}", jwksUrl, fresh.keySet());
+        } catch (RuntimeException e) {
+            logger.warn("No se pudo descargar el JWKS de {}: {}", jwksUrl, e.getMessage());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+}
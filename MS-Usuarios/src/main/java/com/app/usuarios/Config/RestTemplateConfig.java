@@ -1,13 +1,31 @@
 package com.app.usuarios.Config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.app.commons.http.OutboundClientProperties;
+import org.app.commons.http.OutboundRestTemplates;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 public class RestTemplateConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "auth.client")
+    public OutboundClientProperties outboundClientProperties() {
+        return new OutboundClientProperties();
+    }
+
+    /**
+     * Cliente de las llamadas a MS-Authenticacion: {@link OutboundRestTemplates} con los ajustes de
+     * {@code auth.client}.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(OutboundClientProperties properties,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${auth.client.virtualThreads:${spring.threads.virtual.enabled:false}}") boolean virtualThreads) {
+        return OutboundRestTemplates.create(properties, meterRegistry, virtualThreads);
     }
 }
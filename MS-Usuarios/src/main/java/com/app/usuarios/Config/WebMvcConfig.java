@@ -0,0 +1,41 @@
+package com.app.usuarios.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new AuthenticatedIdentityArgumentResolver());
+    }
+
+    /** Entrega a los controladores la {@link AuthenticatedIdentity} que dejó el filtro en la petición. */
+    static class AuthenticatedIdentityArgumentResolver implements HandlerMethodArgumentResolver {
+
+        @Override
+        public boolean supportsParameter(MethodParameter parameter) {
+            return AuthenticatedIdentity.class.equals(parameter.getParameterType());
+        }
+
+        @Override
+        public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                      NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+            Object identity = webRequest.getAttribute(AuthenticatedIdentity.REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (identity == null) {
+                throw new AuthenticationCredentialsNotFoundException("Petición sin token validado");
+            }
+            return identity;
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package com.app.usuarios.Controller;
 
-import com.app.usuarios.Config.AuthClientService;
+import com.app.usuarios.Config.AuthenticatedIdentity;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -13,7 +13,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -22,11 +21,6 @@ import org.springframework.web.bind.annotation.RestController;
 @Tag(name = "Recursos Protegidos", description = "API para acceder a recursos que requieren autenticación")
 @SecurityRequirement(name = "Bearer Authentication")
 public class ProtectedController {
-    private final AuthClientService authClientService;
-
-    public ProtectedController(AuthClientService authClientService) {
-        this.authClientService = authClientService;
-    }
 
     @Operation(
             summary = "Acceder a recurso protegido",
@@ -62,12 +56,8 @@ public class ProtectedController {
     })
     @PostMapping("/protected-resource")
     public ResponseEntity<String> accessProtectedResource(
-            @Parameter(hidden = true)
-            @RequestHeader("Authorization") String token) {
-
-        if (!authClientService.validateToken(token)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Unauthorized");
-        }
+            // JwtAuthFilter ya validó el token de esta petición: aquí solo se lee el resultado
+            @Parameter(hidden = true) AuthenticatedIdentity identity) {
 
         return ResponseEntity.status(HttpStatus.OK).body("success");
     }
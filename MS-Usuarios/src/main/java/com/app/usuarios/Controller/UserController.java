@@ -7,8 +7,6 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
@@ -22,10 +20,14 @@ public class UserController {
         return ResponseEntity.ok(userService.create(userDto));
     }
 
-    // READ ALL
+    // READ ALL - paginado: se sigue con ?cursor=<nextCursor> hasta que nextCursor venga a null
     @GetMapping
-    public ResponseEntity<List<UserResponseDto>> findAll() {
-        return ResponseEntity.ok(userService.findAll());
+    public ResponseEntity<UserPageDto> findAll(@RequestParam(required = false) String cursor,
+                                               @RequestParam(required = false) Integer size,
+                                               @RequestParam(required = false) String fitnessGoal,
+                                               @RequestParam(required = false) String experienceLevel,
+                                               @RequestParam(required = false) Boolean enabled) {
+        return ResponseEntity.ok(userService.findPage(cursor, size, fitnessGoal, experienceLevel, enabled));
     }
 
     // READ BY ID
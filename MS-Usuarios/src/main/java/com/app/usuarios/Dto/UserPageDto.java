@@ -0,0 +1,13 @@
+package com.app.usuarios.Dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class UserPageDto {
+    private List<UserResponseDto> items;
+    private String nextCursor; // null en la última página
+}
@@ -2,6 +2,7 @@ package com.app.usuarios.Model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.security.core.GrantedAuthority;
@@ -20,7 +21,12 @@ import java.util.stream.Collectors;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "users")
+// Índices (filtro, id) para el listado por keyset: cada página es un rango sobre id dentro del filtro
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_fitness_goal_id", columnList = "fitness_goal, id"),
+        @Index(name = "idx_users_experience_level_id", columnList = "experience_level, id"),
+        @Index(name = "idx_users_enabled_id", columnList = "enabled, id")
+})
 public class User implements UserDetails {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,6 +41,7 @@ public class User implements UserDetails {
     private String password;
 
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 100) // roles de una página de usuarios en un solo IN, no una consulta por usuario
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
@@ -1,15 +1,44 @@
 package com.app.usuarios.Service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.app.commons.hashing.BulkheadPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class PasswordEncoderConfig {
 
+    // BCrypt fuera de los hilos de Tomcat: un pico de altas no deja sin CPU al resto de la API
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService passwordHashingExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${users.passwordHashing.threads:0}") int threads,
+            @Value("${users.passwordHashing.queueCapacity:16}") int queueCapacity) {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hashing-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing", List.of());
+    }
+
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Qualifier("passwordHashingExecutor") ExecutorService passwordHashingExecutor,
+            @Value("${users.passwordHashing.timeoutMs:5000}") long timeoutMs) {
+        return new BulkheadPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingExecutor, timeoutMs);
     }
-}
\ No newline at end of file
+}
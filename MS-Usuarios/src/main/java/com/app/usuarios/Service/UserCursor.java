@@ -0,0 +1,37 @@
+package com.app.usuarios.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor opaco del listado de usuarios: el último id devuelto, en base64url. Los clientes solo lo
+ * reenvían; el formato puede cambiar (p. ej. a otra clave de orden) sin tocar el contrato.
+ */
+final class UserCursor {
+
+    private static final String PREFIX = "u1:";
+
+    private UserCursor() {
+    }
+
+    static String encode(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Id a partir del cual continuar, o null si no hay cursor (primera página). */
+    static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(PREFIX)) {
+                throw new InvalidCursorException("Invalid cursor");
+            }
+            return Long.parseLong(value.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor");
+        }
+    }
+}
@@ -5,7 +5,11 @@ import com.app.usuarios.Model.Role;
 import com.app.usuarios.Model.User;
 import com.app.usuarios.Repository.RoleRepository;
 import com.app.usuarios.Repository.UserRepository;
+import jakarta.persistence.criteria.Predicate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -14,9 +18,11 @@ import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -26,6 +32,12 @@ public class UserService {
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
 
+    @Value("${users.pagination.defaultSize:20}")
+    private int defaultPageSize;
+
+    @Value("${users.pagination.maxSize:100}")
+    private int maxPageSize;
+
     // CREATE - Crear usuario
     @Transactional
     public User create(UserCreateDto userDto) {
@@ -68,15 +80,34 @@ public class UserService {
         return userRepository.save(user);
     }
 
-    // READ - Obtener todos los usuarios
-    public List<UserResponseDto> findAll() {
-        return userRepository.findAll()
-                .stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
+    // READ - Listado por keyset sobre id: cada página busca "id > último id del cursor" en el índice,
+    // así que la página N cuesta lo mismo que la primera; el tamaño lo acota el servidor
+    @Transactional(readOnly = true)
+    public UserPageDto findPage(String cursor, Integer size, String fitnessGoal, String experienceLevel, Boolean enabled) {
+        int limit = size == null ? defaultPageSize : Math.clamp(size, 1, maxPageSize);
+        Long afterId = UserCursor.decode(cursor);
+
+        Specification<User> filter = (root, query, cb) -> cb.and(Stream.of(
+                        afterId == null ? null : cb.greaterThan(root.<Long>get("id"), afterId),
+                        fitnessGoal == null ? null : cb.equal(root.get("fitnessGoal"), fitnessGoal),
+                        experienceLevel == null ? null : cb.equal(root.get("experienceLevel"), experienceLevel),
+                        enabled == null ? null : cb.equal(root.get("enabled"), enabled))
+                .filter(Objects::nonNull)
+                .toArray(Predicate[]::new));
+
+        // Uno de más para saber si hay página siguiente sin un COUNT
+        List<User> users = userRepository.findBy(filter, q -> q.sortBy(Sort.by("id")).limit(limit + 1).all());
+        boolean hasMore = users.size() > limit;
+        List<User> page = hasMore ? users.subList(0, limit) : users;
+
+        return UserPageDto.builder()
+                .items(page.stream().map(this::toDto).collect(Collectors.toList()))
+                .nextCursor(hasMore ? UserCursor.encode(page.get(page.size() - 1).getId()) : null)
+                .build();
     }
 
     // READ - Obtener usuario por ID
+    @Transactional(readOnly = true)
     public UserResponseDto findById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("User not found with id: " + id));
@@ -84,6 +115,7 @@ public class UserService {
     }
 
     // READ - Obtener usuario por username
+    @Transactional(readOnly = true)
     public UserResponseDto findByUsername(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found with username: " + username));
@@ -91,6 +123,7 @@ public class UserService {
     }
 
     // READ - Obtener usuario por email
+    @Transactional(readOnly = true)
     public UserResponseDto findByEmail(String email) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found with email: " + email));
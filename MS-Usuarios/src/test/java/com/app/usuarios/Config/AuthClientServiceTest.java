@@ -0,0 +1,169 @@
+package com.app.usuarios.Config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** MS-Authenticacion simulado con un {@link HttpServer}: responde 401 a los tokens cuyo sub empieza por "bad". */
+class AuthClientServiceTest {
+
+    private final AtomicInteger remoteCalls = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean holdResponses;
+    private HttpServer server;
+    private MeterRegistry meterRegistry;
+    private AuthClientService client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/api/auth/validate-token", exchange -> {
+            remoteCalls.incrementAndGet();
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (holdResponses) {
+                await(release);
+            }
+            int status = LocalJwtVerifier.unverifiedClaims(tokenIn(body)).get("sub").toString().startsWith("bad") ? 401 : 200;
+            byte[] response = "{}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        server.start();
+        meterRegistry = new SimpleMeterRegistry();
+        client = client(30_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    void concurrentValidationsOfTheSameTokenShareOneRemoteCall() throws Exception {
+        String token = token("alice", 60);
+        holdResponses = true;
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> client.validateToken(token)));
+        }
+        // Todas esperan a la primera llamada, que no responde hasta que se suelta
+        while (meterRegistry.counter("auth.client.validations.coalesced").count() < 7) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+        for (Future<Boolean> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        callers.shutdown();
+
+        assertThat(remoteCalls).hasValue(1);
+        assertThat(client.validateToken(token)).isTrue();
+        assertThat(remoteCalls).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "authValidation").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void negativeResultsAreCachedToo() {
+        String token = token("bad-bob", 60);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> client.validateToken(token)).isInstanceOf(BadCredentialsException.class);
+        }
+        assertThat(remoteCalls).hasValue(1);
+        assertThat(meterRegistry.get("auth.client.validations.remote").tag("outcome", "invalid").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void tokensCloseToExpiryAreNotCached() {
+        // exp dentro del margen de 5 s: cada validación vuelve a preguntar
+        String token = token("carol", 3);
+
+        client.validateToken(token);
+        client.validateToken(token);
+
+        assertThat(remoteCalls).hasValue(2);
+    }
+
+    @Test
+    void positiveResultsExpireWellBeforeTheToken() {
+        // Token de 15 min: sin tope, una revocación no se vería aquí hasta su exp
+        client = client(0);
+        String token = token("erin", 900);
+
+        client.validateToken(token);
+        client.validateToken(token);
+
+        assertThat(remoteCalls).hasValue(2);
+    }
+
+    @Test
+    void communicationErrorsAreNotCached() {
+        server.removeContext("/api/auth/validate-token");
+        server.createContext("/api/auth/validate-token", exchange -> {
+            remoteCalls.incrementAndGet();
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        String token = token("dave", 60);
+
+        assertThatThrownBy(() -> client.validateToken(token)).isInstanceOf(RuntimeException.class)
+                .isNotInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> client.validateToken(token)).isInstanceOf(RuntimeException.class);
+        assertThat(remoteCalls).hasValue(2);
+    }
+
+    private AuthClientService client(long positiveMaxTtlMs) {
+        AuthClientService service = new AuthClientService(new RestTemplate(), meterRegistry, 1000, 5000, positiveMaxTtlMs, 10_000);
+        ReflectionTestUtils.setField(service, "AUTH_SERVICE_URL",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/api/auth/validate-token");
+        return service;
+    }
+
+    private static String token(String subject, long expiresInSeconds) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        long exp = System.currentTimeMillis() / 1000 + expiresInSeconds;
+        String payload = "{\"sub\":\"" + subject + "\",\"exp\":" + exp + "}";
+        return encoder.encodeToString("{\"alg\":\"RS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".c2ln";
+    }
+
+    private static String tokenIn(String body) {
+        return body.replaceAll(".*\"token\"\\s*:\\s*\"([^\"]+)\".*", "$1");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
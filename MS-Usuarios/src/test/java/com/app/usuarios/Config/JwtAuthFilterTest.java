@@ -0,0 +1,95 @@
+package com.app.usuarios.Config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.ServerSocket;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** MS-Authenticacion inalcanzable: un puerto local que se abre y se cierra antes de la prueba. */
+class JwtAuthFilterTest {
+
+    private static final String TOKEN = "header.payload.signature";
+
+    private LocalJwtVerifier jwtVerifier;
+    private AuthClientService authClientService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtVerifier = mock(LocalJwtVerifier.class);
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+        authClientService = new AuthClientService(new RestTemplate(), new SimpleMeterRegistry(), 1000, 5000, 30_000, 10_000);
+        ReflectionTestUtils.setField(authClientService, "AUTH_SERVICE_URL",
+                "http://127.0.0.1:" + closedPort + "/api/auth/validate-token");
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void unknownKeyWithTheAuthServiceDownIsUnauthorized() throws Exception {
+        when(jwtVerifier.authenticate(TOKEN)).thenThrow(new LocalJwtVerifier.UnknownSigningKeyException("kid inventado"));
+
+        MockHttpServletResponse response = filter(JwtAuthFilter.RemoteValidation.UNKNOWN_KEY);
+
+        assertThat(response.getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void alwaysModeWithTheAuthServiceDownIsServiceUnavailable() throws Exception {
+        when(jwtVerifier.authenticate(TOKEN)).thenReturn(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+
+        MockHttpServletResponse response = filter(JwtAuthFilter.RemoteValidation.ALWAYS);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+    }
+
+    @Test
+    void locallyVerifiedTokenNeedsNoRemoteCallByDefault() throws Exception {
+        when(jwtVerifier.authenticate(TOKEN)).thenReturn(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = filter(JwtAuthFilter.RemoteValidation.UNKNOWN_KEY, chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private MockHttpServletResponse filter(JwtAuthFilter.RemoteValidation mode) throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = filter(mode, chain);
+        assertThat(chain.getRequest()).as("la petición no debe seguir la cadena").isNull();
+        return response;
+    }
+
+    private MockHttpServletResponse filter(JwtAuthFilter.RemoteValidation mode, MockFilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new JwtAuthFilter(jwtVerifier, authClientService, mode).doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,136 @@
+package com.app.usuarios.Config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.SecretKey;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyPair;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** JWKS servido por un {@link HttpServer} del JDK que cuenta las descargas. */
+class LocalJwtVerifierTest {
+
+    private static final String KID = "k1";
+
+    private final KeyPair keyPair = Jwts.SIG.RS256.keyPair().build();
+    private final SecretKey legacyKey = Jwts.SIG.HS256.key().build();
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+    private HttpServer server;
+    private String jwksUrl;
+
+    @BeforeEach
+    void startJwksServer() throws Exception {
+        String jwks = "{\"keys\":[" + Jwks.json((PublicJwk<?>) Jwks.builder()
+                .key(keyPair.getPublic()).id(KID).build()) + "]}";
+        byte[] body = jwks.getBytes(StandardCharsets.UTF_8);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/.well-known/jwks.json", exchange -> {
+            jwksRequests.incrementAndGet();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        jwksUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/.well-known/jwks.json";
+    }
+
+    @AfterEach
+    void stopJwksServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void buildsPrincipalFromClaimsAndDownloadsJwksOnce() {
+        LocalJwtVerifier verifier = verifier(true);
+
+        UsernamePasswordAuthenticationToken first = verifier.authenticate(token(KID, keyPair.getPrivate(), 60_000));
+        verifier.authenticate(token(KID, keyPair.getPrivate(), 60_000));
+
+        assertThat(first.getName()).isEqualTo("alice");
+        assertThat(first.isAuthenticated()).isTrue();
+        assertThat(first.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_USER", "READ", "WRITE");
+        assertThat(jwksRequests).hasValue(1);
+    }
+
+    @Test
+    void unknownKidIsReportedAndDoesNotRefetchWithinTheMinimumInterval() {
+        LocalJwtVerifier verifier = verifier(true);
+        KeyPair other = Jwts.SIG.RS256.keyPair().build();
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> verifier.authenticate(token("k2", other.getPrivate(), 60_000)))
+                    .isInstanceOf(LocalJwtVerifier.UnknownSigningKeyException.class);
+        }
+        assertThat(jwksRequests).hasValue(1);
+    }
+
+    @Test
+    void tokensWithoutKidUseTheLegacySecretOnlyWhenAccepted() {
+        String legacy = token(null, legacyKey, 60_000);
+
+        assertThat(verifier(true).authenticate(legacy).getName()).isEqualTo("alice");
+        assertThatThrownBy(() -> verifier(false).authenticate(legacy))
+                .isInstanceOf(LocalJwtVerifier.UnknownSigningKeyException.class);
+        assertThat(jwksRequests).hasValue(0);
+    }
+
+    @Test
+    void rejectsExpiredAndTamperedTokens() {
+        LocalJwtVerifier verifier = verifier(true);
+        KeyPair impostor = Jwts.SIG.RS256.keyPair().build();
+
+        assertThatThrownBy(() -> verifier.authenticate(token(KID, keyPair.getPrivate(), -120_000)))
+                .isInstanceOf(ExpiredJwtException.class);
+        assertThatThrownBy(() -> verifier.authenticate(token(KID, impostor.getPrivate(), 60_000)))
+                .isInstanceOf(SignatureException.class);
+    }
+
+    @Test
+    void unverifiedPayloadGivesTheSamePrincipal() {
+        UsernamePasswordAuthenticationToken authentication = verifier(true)
+                .authenticateUnverified(token("k2", Jwts.SIG.RS256.keyPair().build().getPrivate(), 60_000));
+
+        assertThat(authentication.getName()).isEqualTo("alice");
+        assertThat(authentication.getAuthorities()).hasSize(3);
+    }
+
+    private LocalJwtVerifier verifier(boolean acceptLegacyHmac) {
+        return new LocalJwtVerifier(new RestTemplate(), jwksUrl, Encoders.BASE64.encode(legacyKey.getEncoded()),
+                acceptLegacyHmac, 60_000, 300_000, 0);
+    }
+
+    private static String token(String kid, Key key, long ttlMs) {
+        Date now = new Date();
+        return Jwts.builder()
+                .header().keyId(kid).and()
+                .subject("alice")
+                .claim(LocalJwtVerifier.ROLES_CLAIM, List.of("ROLE_USER"))
+                .claim(LocalJwtVerifier.PERMISSIONS_CLAIM, List.of("READ", "WRITE"))
+                .issuedAt(now)
+                .expiration(new Date(now.getTime() + ttlMs))
+                .signWith(key)
+                .compact();
+    }
+}
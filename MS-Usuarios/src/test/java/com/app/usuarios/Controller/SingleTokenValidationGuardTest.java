@@ -0,0 +1,123 @@
+package com.app.usuarios.Controller;
+
+import com.app.usuarios.Config.AuthClientService;
+import com.app.usuarios.Config.LocalJwtVerifier;
+import com.app.usuarios.Config.SecurityConfig;
+import com.app.usuarios.Service.RoleService;
+import com.app.usuarios.Service.UserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.request;
+
+/**
+ * Guarda: con {@code auth.validation.remote=ALWAYS} el filtro valida en remoto una vez por petición,
+ * así que cualquier endpoint que produzca más de una llamada está validando otra vez por su cuenta.
+ * Recorre todos los endpoints registrados, de modo que un controlador nuevo queda cubierto sin tocar el test.
+ */
+@WebMvcTest(properties = {
+        "auth.validation.remote=ALWAYS",
+        "auth.url.jwks=http://127.0.0.1:1/.well-known/jwks.json",
+        "auth.app.jwtSecret=" + SingleTokenValidationGuardTest.SECRET
+})
+@Import({SecurityConfig.class, LocalJwtVerifier.class})
+class SingleTokenValidationGuardTest {
+
+    static final String SECRET = "c2luZ2xlLXRva2VuLXZhbGlkYXRpb24tZ3VhcmQtdGVzdC1zZWNyZXQtMzItYnl0ZXM=";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RequestMappingHandlerMapping handlerMapping;
+
+    @MockitoBean
+    private AuthClientService authClientService;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
+
+    @MockitoBean
+    private UserService userService;
+
+    @MockitoBean
+    private RoleService roleService;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        when(authClientService.validateToken(anyString())).thenReturn(true);
+        token = Jwts.builder()
+                .subject("alice")
+                .claim("roles", List.of("ROLE_USER"))
+                .expiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .compact();
+    }
+
+    @Test
+    void everyEndpointValidatesTheTokenRemotelyExactlyOnce() throws Exception {
+        int checked = 0;
+        for (Map.Entry<RequestMappingInfo, HandlerMethod> entry : handlerMapping.getHandlerMethods().entrySet()) {
+            for (MockHttpServletRequestBuilder call : calls(entry.getKey())) {
+                Mockito.clearInvocations(authClientService);
+                mockMvc.perform(call.header("Authorization", "Bearer " + token));
+                assertThat(mockingDetails(authClientService).getInvocations())
+                        .as("Validaciones remotas en %s", entry.getValue().getShortLogMessage())
+                        .hasSize(1);
+                checked++;
+            }
+        }
+        assertThat(checked).isGreaterThan(0);
+    }
+
+    @Test
+    void protectedResourceReadsTheIdentityInsteadOfRevalidating() throws Exception {
+        String body = mockMvc.perform(request(HttpMethod.POST, "/api/protected-resource")
+                        .header("Authorization", "Bearer " + token))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(body).isEqualTo("success");
+        assertThat(mockingDetails(authClientService).getInvocations()).hasSize(1);
+    }
+
+    /** Una petición por método HTTP y patrón, con las variables de path a "1" y un JSON vacío como cuerpo. */
+    private static List<MockHttpServletRequestBuilder> calls(RequestMappingInfo mapping) {
+        var methods = mapping.getMethodsCondition().getMethods().isEmpty()
+                ? List.of(RequestMethod.GET)
+                : List.copyOf(mapping.getMethodsCondition().getMethods());
+        return mapping.getPatternValues().stream()
+                .filter(pattern -> pattern.startsWith("/api/"))
+                .flatMap(pattern -> methods.stream().map(method -> request(HttpMethod.valueOf(method.name()),
+                        pattern.replaceAll("\\{[^}]+}", "1"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}")))
+                .toList();
+    }
+}
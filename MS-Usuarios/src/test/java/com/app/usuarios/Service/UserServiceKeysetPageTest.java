@@ -0,0 +1,136 @@
+package com.app.usuarios.Service;
+
+import com.app.usuarios.Dto.UserPageDto;
+import com.app.usuarios.Dto.UserResponseDto;
+import com.app.usuarios.Model.Role;
+import com.app.usuarios.Model.User;
+import com.app.usuarios.Repository.RoleRepository;
+import com.app.usuarios.Repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * El listado por keyset contra H2: la Specification real, {@code sortBy(id)} y {@code limit(n + 1)}
+ * del repositorio, y los roles de cada página cargados por {@code @BatchSize}.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Import(UserService.class)
+// Sin la transacción del test: cada página abre la suya y su sesión, como en producción
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceKeysetPageTest {
+
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private PasswordEncoder passwordEncoder;
+
+    private Statistics statistics;
+
+    /** Ids que cumplen fitnessGoal = muscle_gain y enabled = true, en orden de inserción. */
+    private final List<Long> expected = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        roleRepository.deleteAll();
+        Role user = roleRepository.save(Role.builder().name("ROLE_USER").build());
+        Role admin = roleRepository.save(Role.builder().name("ROLE_ADMIN").build());
+        // Coincidencias intercaladas con otros objetivos y con deshabilitados: el cursor no puede ser un offset
+        for (int i = 0; i < 30; i++) {
+            String goal = i % 3 == 0 ? "weight_loss" : "muscle_gain";
+            boolean enabled = i % 5 != 0;
+            User saved = userRepository.save(User.builder()
+                    .username("user" + i)
+                    .email("user" + i + "@example.com")
+                    .password("{noop}secret")
+                    .fitnessGoal(goal)
+                    .experienceLevel(i % 2 == 0 ? "beginner" : "advanced")
+                    .enabled(enabled)
+                    .roles(i % 4 == 0 ? Set.of(user, admin) : Set.of(user))
+                    .build());
+            if (goal.equals("muscle_gain") && enabled) {
+                expected.add(saved.getId());
+            }
+        }
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void cursorWalksTheFilteredUsersInIdOrderWithoutGapsOrRepeats() {
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            UserPageDto page = userService.findPage(cursor, PAGE_SIZE, "muscle_gain", null, true);
+            page.getItems().forEach(item -> {
+                assertThat(item.getFitnessGoal()).isEqualTo("muscle_gain");
+                assertThat(item.isEnabled()).isTrue();
+            });
+            page.getItems().stream().map(UserResponseDto::getId).forEach(seen::add);
+            pageSizes.add(page.getItems().size());
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertThat(expected).hasSizeGreaterThan(2 * PAGE_SIZE);
+        assertThat(seen).containsExactlyElementsOf(expected);
+        assertThat(pageSizes.subList(0, pageSizes.size() - 1)).containsOnly(PAGE_SIZE);
+        assertThat(pageSizes.getLast()).isBetween(1, PAGE_SIZE);
+    }
+
+    @Test
+    void combinedFiltersNarrowEachPage() {
+        UserPageDto page = userService.findPage(null, 100, "muscle_gain", "advanced", true);
+
+        assertThat(page.getItems()).extracting(UserResponseDto::getId)
+                .containsExactlyElementsOf(expected.stream()
+                        .filter(id -> userRepository.findById(id).orElseThrow().getExperienceLevel().equals("advanced"))
+                        .toList());
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void eachPageIsOneQueryForUsersAndOneForTheirRoles() {
+        String cursor = userService.findPage(null, PAGE_SIZE, "muscle_gain", null, true).getNextCursor();
+
+        statistics.clear();
+        UserPageDto page = userService.findPage(cursor, PAGE_SIZE, "muscle_gain", null, true);
+
+        // SELECT users ... LIMIT 5 + un único SELECT de user_roles con IN para los cinco usuarios
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityStatistics(User.class.getName()).getLoadCount()).isEqualTo(PAGE_SIZE + 1);
+        assertThat(page.getItems()).allSatisfy(item -> assertThat(item.getRoles()).contains("ROLE_USER"));
+        assertThat(page.getItems()).anySatisfy(item -> assertThat(item.getRoles()).contains("ROLE_ADMIN"));
+    }
+}
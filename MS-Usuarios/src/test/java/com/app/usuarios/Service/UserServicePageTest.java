@@ -0,0 +1,91 @@
+package com.app.usuarios.Service;
+
+import com.app.usuarios.Dto.UserPageDto;
+import com.app.usuarios.Dto.UserResponseDto;
+import com.app.usuarios.Model.User;
+import com.app.usuarios.Repository.RoleRepository;
+import com.app.usuarios.Repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.repository.query.FluentQuery.FetchableFluentQuery;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserServicePageTest {
+
+    private UserRepository userRepository;
+    private FetchableFluentQuery<User> query;
+    private UserService userService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        query = mock(FetchableFluentQuery.class, RETURNS_SELF);
+        when(userRepository.findBy(any(Specification.class), any())).thenAnswer(invocation ->
+                invocation.<Function<FetchableFluentQuery<User>, ?>>getArgument(1).apply(query));
+        userService = new UserService(userRepository, mock(RoleRepository.class), mock(PasswordEncoder.class));
+        ReflectionTestUtils.setField(userService, "defaultPageSize", 20);
+        ReflectionTestUtils.setField(userService, "maxPageSize", 100);
+    }
+
+    @Test
+    void fetchesOneExtraRowToKnowIfThereIsANextPage() {
+        when(query.all()).thenReturn(users(1, 21));
+
+        UserPageDto page = userService.findPage(null, null, null, null, null);
+
+        verify(query).limit(21);
+        assertThat(page.getItems()).extracting(UserResponseDto::getId).containsExactlyElementsOf(LongStream.rangeClosed(1, 20).boxed().toList());
+        assertThat(UserCursor.decode(page.getNextCursor())).isEqualTo(20L);
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(query.all()).thenReturn(users(41, 45));
+
+        UserPageDto page = userService.findPage(UserCursor.encode(40), 10, "muscle_gain", null, true);
+
+        assertThat(page.getItems()).hasSize(5);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void pageSizeIsCappedByTheServer() {
+        when(query.all()).thenReturn(List.of());
+
+        userService.findPage(null, 100_000, null, null, null);
+        userService.findPage(null, 0, null, null, null);
+
+        verify(query).limit(101);
+        verify(query).limit(2);
+    }
+
+    @Test
+    void rejectsCursorsItDidNotIssue() {
+        assertThatThrownBy(() -> userService.findPage("not-a-cursor", null, null, null, null))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> userService.findPage("MTIz", null, null, null, null)) // "123" sin prefijo
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    private static List<User> users(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId)
+                .mapToObj(id -> User.builder().id(id).username("user" + id).roles(new HashSet<>()).build())
+                .toList();
+    }
+}
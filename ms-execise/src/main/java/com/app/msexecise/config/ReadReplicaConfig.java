@@ -0,0 +1,19 @@
+package com.app.msexecise.config;
+
+import org.app.commons.replica.ReadReplicaConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Réplica de lectura ({@code exercise.datasource.replica.enabled=true}) con los beans de
+ * {@link ReadReplicaConfiguration} leídos de {@code exercise.datasource.replica}. Sin la propiedad, el
+ * datasource sigue siendo el de la autoconfiguración.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "exercise.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig extends ReadReplicaConfiguration {
+
+    public ReadReplicaConfig() {
+        super("exercise.datasource.replica");
+    }
+}
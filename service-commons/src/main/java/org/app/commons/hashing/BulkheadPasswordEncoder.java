@@ -0,0 +1,114 @@
+package org.app.commons.hashing;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+
+/**
+ * Ejecuta {@code encode}/{@code matches} del encoder delegado en un pool propio y acotado.
+ * Un pico de logins o de altas ocupa como mucho ese pool y su cola; lo que no cabe se rechaza
+ * al instante con {@link PasswordHashingUnavailableException} (503) en lugar de consumir la
+ * CPU que necesita el resto de peticiones.
+ *
+ * <p>Un {@link Timing} opcional recibe la espera en cola y el cálculo por separado: un p99 alto
+ * con la cola llena no es lo mismo que un coste mal calibrado.
+ */
+public class BulkheadPasswordEncoder implements PasswordEncoder {
+
+    public enum Operation {
+        ENCODE, MATCHES
+    }
+
+    /** Instantes en {@link System#nanoTime()}; todos los métodos son opcionales. */
+    public interface Timing {
+        Timing NONE = new Timing() {
+        };
+
+        /** La tarea sale de la cola y empieza el hash. */
+        default void dequeued(Operation operation, long submittedNanos) {
+        }
+
+        default void hashed(Operation operation, long startedNanos) {
+        }
+
+        /** {@code mismatch}: {@code matches} devolvió {@code false}. */
+        default void completed(Operation operation, long submittedNanos, boolean mismatch) {
+        }
+
+        /** Rechazo, timeout o error del encoder; los dos primeros llegan como {@link PasswordHashingUnavailableException}. */
+        default void failed(Operation operation, long submittedNanos, Throwable cause) {
+        }
+    }
+
+    private final PasswordEncoder delegate;
+    private final ExecutorService executor;
+    private final long timeoutMs;
+    private final Timing timing;
+
+    public BulkheadPasswordEncoder(PasswordEncoder delegate, ExecutorService executor, long timeoutMs) {
+        this(delegate, executor, timeoutMs, Timing.NONE);
+    }
+
+    public BulkheadPasswordEncoder(PasswordEncoder delegate, ExecutorService executor, long timeoutMs, Timing timing) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.timeoutMs = timeoutMs;
+        this.timing = timing;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return call(Operation.ENCODE, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return call(Operation.MATCHES, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T call(Operation operation, Callable<T> task) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                timing.dequeued(operation, submitted);
+                long started = System.nanoTime();
+                T result = task.call();
+                timing.hashed(operation, started);
+                return result;
+            });
+        } catch (RejectedExecutionException e) {
+            throw unavailable(operation, submitted, "Demasiados cálculos de contraseña en curso, reintente más tarde", e);
+        }
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            timing.completed(operation, submitted, Boolean.FALSE.equals(result));
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw unavailable(operation, submitted, "Tiempo de espera agotado calculando la contraseña", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Cálculo de la contraseña interrumpido", e);
+        } catch (ExecutionException e) {
+            timing.failed(operation, submitted, e.getCause());
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private PasswordHashingUnavailableException unavailable(Operation operation, long submitted, String reason,
+                                                            Exception cause) {
+        PasswordHashingUnavailableException e = new PasswordHashingUnavailableException(reason, cause);
+        timing.failed(operation, submitted, e);
+        return e;
+    }
+}
@@ -0,0 +1,26 @@
+package org.app.commons.hashing;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * El pool de hashing de contraseñas está saturado o no respondió a tiempo. Es un 503 con
+ * {@code Retry-After} sin manejador propio: Spring MVC aplica el estado y las cabeceras de un
+ * {@link ResponseStatusException}.
+ */
+public class PasswordHashingUnavailableException extends ResponseStatusException {
+
+    public static final String RETRY_AFTER_SECONDS = "1";
+
+    public PasswordHashingUnavailableException(String reason, Throwable cause) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, reason, cause);
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        return headers;
+    }
+}
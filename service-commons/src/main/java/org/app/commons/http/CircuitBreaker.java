@@ -0,0 +1,117 @@
+package org.app.commons.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker de un destino sobre las últimas {@code windowSize} llamadas. Se abre cuando, con al
+ * menos {@code minimumCalls} en la ventana, los fallos llegan a {@code failureRatePct}; abierto rechaza
+ * sin llamar durante {@code openMs}. Después pasa a semiabierto y deja salir {@code halfOpenProbes}
+ * llamadas de prueba: si todas van bien se cierra y al primer fallo vuelve a abrirse.
+ *
+ * <p>Las secciones críticas solo tocan contadores, así que {@code synchronized} no fija hilos
+ * virtuales mientras esperan a la red.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int minimumCalls;
+    private final int failureRatePct;
+    private final long openMs;
+    private final int halfOpenProbes;
+    private final boolean[] window;
+    private int next;
+    private int calls;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesIssued;
+    private int probesSucceeded;
+
+    public CircuitBreaker(String name, OutboundClientProperties.CircuitBreakerSettings settings) {
+        this.name = name;
+        this.minimumCalls = settings.getMinimumCalls();
+        this.failureRatePct = settings.getFailureRatePct();
+        this.openMs = settings.getOpenMs();
+        this.halfOpenProbes = Math.max(1, settings.getHalfOpenProbes());
+        this.window = new boolean[Math.max(1, settings.getWindowSize())];
+    }
+
+    /** {@code true} si la llamada puede salir; cada {@code true} debe cerrarse con un éxito o un fallo. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMs) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probesIssued = 0;
+            probesSucceeded = 0;
+            logger.info("Circuito {} semiabierto: {} llamadas de prueba", name, halfOpenProbes);
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesIssued >= halfOpenProbes) {
+                return false;
+            }
+            probesIssued++;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++probesSucceeded >= halfOpenProbes) {
+                close();
+            }
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (calls >= minimumCalls && failures * 100 >= failureRatePct * calls) {
+                open();
+            }
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failed) {
+        if (calls == window.length) {
+            failures -= window[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        window[next] = failed;
+        failures += failed ? 1 : 0;
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        logger.warn("Circuito {} abierto durante {} ms ({} fallos en {} llamadas)", name, openMs, failures, calls);
+        state = State.OPEN;
+        openedAt = System.currentTimeMillis();
+    }
+
+    private void close() {
+        logger.info("Circuito {} cerrado", name);
+        state = State.CLOSED;
+        next = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
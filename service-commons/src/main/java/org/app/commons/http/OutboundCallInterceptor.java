@@ -0,0 +1,133 @@
+package org.app.commons.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Protección y medida de cada llamada saliente, por destino ({@code esquema://host:puerto}):
+ * <ol>
+ *   <li>Límite de llamadas simultáneas: sin hueco en {@code acquireTimeoutMs} se rechaza.</li>
+ *   <li>{@link CircuitBreaker}: con el circuito abierto se rechaza sin tocar la red. Cuentan como
+ *   fallo los 5xx, los timeouts y los errores de E/S; un 4xx es una respuesta sana.</li>
+ *   <li>Timer {@code http.client.outbound{destination, route, outcome}} con histograma, para
+ *   percentiles por destino en Prometheus.</li>
+ * </ol>
+ * Los rechazos son {@link OutboundCallRejectedException}, que {@code RestTemplate} entrega como
+ * {@code ResourceAccessException} igual que un error de red.
+ */
+public class OutboundCallInterceptor implements ClientHttpRequestInterceptor {
+
+    private final OutboundClientProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<String, Destination> destinations = new ConcurrentHashMap<>();
+
+    private record Destination(String name, Semaphore permits, CircuitBreaker breaker) {
+    }
+
+    public OutboundCallInterceptor(OutboundClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+        URI uri = request.getURI();
+        Destination destination = destinations.computeIfAbsent(destinationOf(uri), this::newDestination);
+        String route = properties.routeOf(uri);
+        long start = System.nanoTime();
+
+        // El hueco va antes que el circuito: un rechazo por saturación no consume una llamada de prueba
+        if (!acquire(destination.permits())) {
+            record(destination, route, "bulkhead_full", start);
+            throw new OutboundCallRejectedException(destination.name() + ": demasiadas llamadas en curso");
+        }
+        String outcome = "io_error";
+        try {
+            if (!destination.breaker().tryAcquire()) {
+                outcome = "circuit_open";
+                throw new OutboundCallRejectedException(destination.name() + ": circuito abierto");
+            }
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                int status = response.getStatusCode().value();
+                if (status >= 500) {
+                    destination.breaker().onFailure();
+                    outcome = "server_error";
+                } else {
+                    destination.breaker().onSuccess();
+                    outcome = status >= 400 ? "client_error" : "success";
+                }
+                return response;
+            } catch (CancellationException e) {
+                // JdkClientHttpRequest deja escapar a veces la cancelación de su propio timeout de lectura
+                destination.breaker().onFailure();
+                outcome = "timeout";
+                HttpTimeoutException timeout = new HttpTimeoutException("Timeout de lectura en " + uri);
+                timeout.initCause(e);
+                throw timeout;
+            } catch (IOException | RuntimeException e) {
+                destination.breaker().onFailure();
+                outcome = isTimeout(e) ? "timeout" : "io_error";
+                throw e;
+            }
+        } finally {
+            destination.permits().release();
+            record(destination, route, outcome, start);
+        }
+    }
+
+    private boolean acquire(Semaphore permits) throws IOException {
+        try {
+            return permits.tryAcquire(properties.getAcquireTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrumpido esperando una conexión saliente", e);
+        }
+    }
+
+    private Destination newDestination(String name) {
+        CircuitBreaker breaker = new CircuitBreaker(name, properties.getCircuitBreaker());
+        Gauge.builder("http.client.circuit.state", breaker, b -> b.getState().ordinal())
+                .description("Estado del circuito: 0 cerrado, 1 abierto, 2 semiabierto")
+                .tag("destination", name)
+                .register(meterRegistry);
+        return new Destination(name, new Semaphore(properties.getMaxConcurrentPerDestination()), breaker);
+    }
+
+    private void record(Destination destination, String route, String outcome, long start) {
+        Timer.builder("http.client.outbound")
+                .description("Llamadas salientes hasta recibir las cabeceras de la respuesta")
+                .tags("destination", destination.name(), "route", route, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String destinationOf(URI uri) {
+        int port = uri.getPort() != -1 ? uri.getPort() : "https".equals(uri.getScheme()) ? 443 : 80;
+        return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+    }
+}
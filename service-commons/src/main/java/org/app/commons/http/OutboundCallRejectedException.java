@@ -0,0 +1,10 @@
+package org.app.commons.http;
+
+import java.io.IOException;
+
+/** Llamada saliente rechazada sin salir a la red: circuito abierto o destino saturado. */
+public class OutboundCallRejectedException extends IOException {
+    public OutboundCallRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,64 @@
+package org.app.commons.http;
+
+import lombok.Data;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cliente HTTP hacia otros servicios; cada servicio lo enlaza con su prefijo. Cada ruta es un
+ * prefijo de path con su propio timeout de lectura; lo que no encaja en ninguna usa
+ * {@code readTimeoutMs} y la ruta {@code default}.
+ */
+@Data
+public class OutboundClientProperties {
+
+    public static final String DEFAULT_ROUTE = "default";
+
+    /** HTTP_2 negocia h2 por ALPN con https; con http intenta h2c y se queda en 1.1 si el servidor no lo acepta. */
+    private HttpClient.Version version = HttpClient.Version.HTTP_1_1;
+    private long connectTimeoutMs = 2000;
+    private long readTimeoutMs = 5000;
+    /** Tiempo que una conexión ociosa sigue abierta para reutilizarse. */
+    private long keepAliveSeconds = 30;
+    /** Conexiones ociosas que se conservan en total (0 = sin límite). */
+    private int idleConnections = 20;
+    /** Llamadas simultáneas por destino: con HTTP/1.1 es también el máximo de conexiones abiertas. */
+    private int maxConcurrentPerDestination = 50;
+    /** Espera máxima por un hueco antes de rechazar la llamada. */
+    private long acquireTimeoutMs = 100;
+    private Map<String, Route> routes = new LinkedHashMap<>();
+    private CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+
+    @Data
+    public static class Route {
+        private String pathPrefix;
+        private long readTimeoutMs;
+    }
+
+    @Data
+    public static class CircuitBreakerSettings {
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private int failureRatePct = 50;
+        private long openMs = 10000;
+        private int halfOpenProbes = 3;
+    }
+
+    public String routeOf(URI uri) {
+        String path = uri.getPath() != null ? uri.getPath() : "";
+        for (Map.Entry<String, Route> route : routes.entrySet()) {
+            if (path.startsWith(route.getValue().getPathPrefix())) {
+                return route.getKey();
+            }
+        }
+        return DEFAULT_ROUTE;
+    }
+
+    public long readTimeoutMs(String route) {
+        Route settings = routes.get(route);
+        return settings != null && settings.getReadTimeoutMs() > 0 ? settings.getReadTimeoutMs() : readTimeoutMs;
+    }
+}
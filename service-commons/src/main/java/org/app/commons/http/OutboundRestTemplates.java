@@ -0,0 +1,52 @@
+package org.app.commons.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * {@link RestTemplate} de las llamadas entre servicios sobre el {@link HttpClient} del JDK, que
+ * reutiliza conexiones y bloquea sin fijar el hilo virtual a su carrier. En modo virtual sus tareas
+ * internas también corren en hilos virtuales; si no, en el pool por defecto del cliente.
+ *
+ * <p>Encima van el timeout de lectura por ruta ({@link RoutedRequestFactory}) y el límite de
+ * llamadas, el circuit breaker y las métricas por destino ({@link OutboundCallInterceptor}).
+ */
+public final class OutboundRestTemplates {
+
+    private OutboundRestTemplates() {
+    }
+
+    public static RestTemplate create(OutboundClientProperties properties, MeterRegistry meterRegistry,
+                                      boolean virtualThreads) {
+        configureConnectionPool(properties);
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(properties.getVersion())
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeoutMs()));
+        if (virtualThreads) {
+            builder.executor(Executors.newVirtualThreadPerTaskExecutor());
+        }
+        RestTemplate restTemplate = new RestTemplate(new RoutedRequestFactory(builder.build(), properties));
+        restTemplate.getInterceptors().add(new OutboundCallInterceptor(properties, meterRegistry));
+        return restTemplate;
+    }
+
+    /**
+     * El pool de conexiones ociosas del {@link HttpClient} solo se configura con propiedades de sistema,
+     * que el JDK lee una vez por JVM: se fijan aquí, antes de crear el primer cliente, salvo que ya
+     * vengan de la línea de comandos.
+     */
+    private static void configureConnectionPool(OutboundClientProperties properties) {
+        setIfAbsent("jdk.httpclient.keepalive.timeout", String.valueOf(properties.getKeepAliveSeconds()));
+        setIfAbsent("jdk.httpclient.connectionPoolSize", String.valueOf(properties.getIdleConnections()));
+    }
+
+    private static void setIfAbsent(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+}
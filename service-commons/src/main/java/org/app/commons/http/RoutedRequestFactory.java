@@ -0,0 +1,40 @@
+package org.app.commons.http;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Aplica el timeout de lectura de la ruta de cada petición. Todas las rutas comparten el mismo
+ * {@link HttpClient} y por tanto sus conexiones; solo cambia el timeout de cada petición.
+ */
+public class RoutedRequestFactory implements ClientHttpRequestFactory {
+
+    private final HttpClient httpClient;
+    private final OutboundClientProperties properties;
+    private final ConcurrentMap<String, JdkClientHttpRequestFactory> byRoute = new ConcurrentHashMap<>();
+
+    public RoutedRequestFactory(HttpClient httpClient, OutboundClientProperties properties) {
+        this.httpClient = httpClient;
+        this.properties = properties;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        return byRoute.computeIfAbsent(properties.routeOf(uri), this::factoryFor).createRequest(uri, httpMethod);
+    }
+
+    private JdkClientHttpRequestFactory factoryFor(String route) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(httpClient);
+        factory.setReadTimeout(Duration.ofMillis(properties.readTimeoutMs(route)));
+        return factory;
+    }
+}
@@ -0,0 +1,113 @@
+package org.app.commons.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Réplica de lectura: un pool para el primario ({@code spring.datasource}), otro de solo lectura para
+ * la réplica (bajo el prefijo del servicio) y, como {@code DataSource} de JPA, un
+ * {@link ReplicaRoutingDataSource} detrás de un {@link LazyConnectionDataSourceProxy}. Cada servicio
+ * la extiende con su prefijo y la activa con su propia propiedad:
+ *
+ * <pre>
+ * &#64;Configuration(proxyBeanMethods = false)
+ * &#64;ConditionalOnProperty(name = "auth.datasource.replica.enabled", havingValue = "true")
+ * public class ReadReplicaConfig extends ReadReplicaConfiguration {
+ *     public ReadReplicaConfig() {
+ *         super("auth.datasource.replica");
+ *     }
+ * }
+ * </pre>
+ *
+ * Bajo el prefijo: las propiedades de {@code DataSourceProperties} ({@code url} obligatoria),
+ * {@code hikari.*}, {@code maxLagMs} (2000), {@code heartbeatIntervalMs} (500) y
+ * {@code maxStickyUsers} (100000).
+ *
+ * <p>Para probarlo en local basta con dos bases H2 en memoria: la réplica no recibe el latido, así
+ * que todas las lecturas van al primario hasta que se copia la fila de {@code replica_heartbeat}.
+ */
+public abstract class ReadReplicaConfiguration {
+
+    private final String prefix;
+
+    protected ReadReplicaConfiguration(String prefix) {
+        this.prefix = prefix;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Se enlaza a mano y no como bean DataSourceProperties: un segundo bean de ese tipo haría
+    // ambigua la inyección en el pool primario y en la autoconfiguración
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource(Environment environment) throws Exception {
+        Binder binder = Binder.get(environment);
+        DataSourceProperties properties = binder.bind(prefix, DataSourceProperties.class)
+                .orElseGet(DataSourceProperties::new);
+        if (!StringUtils.hasText(properties.getUrl())) {
+            // Sin URL, DataSourceProperties caería en una base embebida si hay una en el classpath
+            throw new IllegalStateException(prefix + ".url es obligatorio con la réplica activa");
+        }
+        properties.afterPropertiesSet();
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind(prefix + ".hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               Environment environment,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primary, replica,
+                environment.getProperty(prefix + ".maxLagMs", Long.class, 2000L),
+                environment.getProperty(prefix + ".heartbeatIntervalMs", Long.class, 500L),
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor,
+                                 Environment environment,
+                                 MeterRegistry meterRegistry) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, replica, lagMonitor,
+                environment.getProperty(prefix + ".maxStickyUsers", Integer.class, 100_000), meterRegistry);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Hibernate retiene por defecto la conexión hasta cerrar la sesión; con open-in-view eso es toda
+     * la petición y la primera transacción fijaría el destino de las siguientes. Liberándola al
+     * terminar cada transacción, cada una pasa por el enrutado.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,130 @@
+package org.app.commons.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retraso de la réplica medido con un latido: cada {@code heartbeatIntervalMs} se escribe la hora
+ * en {@code replica_heartbeat} del primario y se lee la que ya ha llegado a la réplica. La diferencia
+ * con la hora actual es una cota superior del retraso (incluye hasta un intervalo de latido), vale
+ * para MySQL y H2 y no necesita el privilegio {@code REPLICATION CLIENT}. Con varias instancias
+ * escribiendo la misma fila gana la hora mayor, así que el desfase de reloj entre ellas se suma
+ * al error de la medida.
+ *
+ * <p>La réplica solo se usa si la última medida está dentro de {@code maxLagMs} y no tiene más de
+ * dos intervalos: si el sondeo se cuelga o la réplica no responde, las lecturas vuelven al primario.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    public static final String TABLE = "replica_heartbeat";
+    private static final long UNKNOWN = -1;
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final long heartbeatIntervalMs;
+    private volatile long lagMs = UNKNOWN;
+    private volatile long measuredAt;
+    private volatile boolean usable;
+    private ScheduledExecutorService scheduler;
+
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, long maxLagMs, long heartbeatIntervalMs,
+                             MeterRegistry meterRegistry) {
+        if (heartbeatIntervalMs <= 0 || heartbeatIntervalMs >= maxLagMs) {
+            throw new IllegalArgumentException("heartbeatIntervalMs debe ser positivo y menor que maxLagMs");
+        }
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout((int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxLagMs)));
+        this.maxLagMs = maxLagMs;
+        this.heartbeatIntervalMs = heartbeatIntervalMs;
+        Gauge.builder("db.replica.lag", this, monitor -> monitor.lagMs)
+                .description("Cota superior del retraso de la réplica en ms (-1 si no se pudo medir)")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        try {
+            primary.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (id INT PRIMARY KEY, beat_ms BIGINT NOT NULL)");
+            primary.update("INSERT INTO " + TABLE + " (id, beat_ms) SELECT 1, 0 FROM (SELECT 1) seed "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM " + TABLE + " WHERE id = 1)");
+        } catch (DataAccessException e) {
+            // Sin tabla la réplica nunca se da por buena: todo va al primario, que es lo seguro
+            logger.warn("No se pudo preparar {} en el primario: {}", TABLE, e.getMessage());
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-lag").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::probe, 0, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /** Lee el latido de la réplica y escribe uno nuevo en el primario; público para forzar una medida en pruebas. */
+    public void probe() {
+        long now = System.currentTimeMillis();
+        long lag;
+        try {
+            Long seen = replica.query("SELECT beat_ms FROM " + TABLE + " WHERE id = 1",
+                    rs -> rs.next() ? rs.getLong(1) : null);
+            lag = seen == null || seen == 0 ? UNKNOWN : Math.max(0, now - seen);
+        } catch (DataAccessException e) {
+            logger.debug("Sondeo de la réplica fallido: {}", e.getMessage());
+            lag = UNKNOWN;
+        }
+        try {
+            primary.update("UPDATE " + TABLE + " SET beat_ms = ? WHERE id = 1 AND beat_ms < ?", now, now);
+        } catch (DataAccessException e) {
+            logger.debug("No se pudo escribir el latido en el primario: {}", e.getMessage());
+        }
+        record(lag, now);
+    }
+
+    private void record(long lag, long now) {
+        boolean first = measuredAt == 0;
+        lagMs = lag;
+        measuredAt = now;
+        boolean nowUsable = lag != UNKNOWN && lag <= maxLagMs;
+        if (nowUsable != usable || first) {
+            usable = nowUsable;
+            if (nowUsable) {
+                logger.info("Réplica al día (retraso {} ms): las transacciones de solo lectura vuelven a ella", lag);
+            } else {
+                logger.warn("Réplica retrasada o sin respuesta (retraso {} ms, máximo {} ms): lecturas al primario",
+                        lag, maxLagMs);
+            }
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable && System.currentTimeMillis() - measuredAt <= 2 * heartbeatIntervalMs;
+    }
+
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    /**
+     * Ventana tras una escritura en la que la réplica aún puede no tenerla aunque se dé por buena:
+     * el retraso máximo más la antigüedad máxima de la medida.
+     */
+    public long getReadYourWritesWindowMs() {
+        return maxLagMs + 2 * heartbeatIntervalMs;
+    }
+}
@@ -0,0 +1,116 @@
+package org.app.commons.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Envía las transacciones {@code readOnly} a la réplica y el resto al primario. Decide al pedir la
+ * conexión, así que tiene que ir detrás de un {@code LazyConnectionDataSourceProxy}: el gestor de
+ * transacciones abre la conexión antes de publicar que la transacción es de solo lectura.
+ *
+ * <p>Una lectura vuelve al primario si la réplica va retrasada ({@link ReplicaLagMonitor}) o si el
+ * usuario autenticado confirmó una escritura hace menos de la ventana de lectura de sus escrituras:
+ * así ve siempre lo que acaba de guardar, y el resto de usuarios sigue leyendo de la réplica.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final int maxStickyEntries;
+    private final ConcurrentMap<String, Long> lastWrite = new ConcurrentHashMap<>();
+    private final Counter writes;
+    private final Counter replicaReads;
+    private final Counter stickyReads;
+    private final Counter laggingReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    int maxStickyEntries, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.maxStickyEntries = maxStickyEntries;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.writes = routed(meterRegistry, Target.PRIMARY, "write");
+        this.replicaReads = routed(meterRegistry, Target.REPLICA, "read_only");
+        this.stickyReads = routed(meterRegistry, Target.PRIMARY, "read_your_writes");
+        this.laggingReads = routed(meterRegistry, Target.PRIMARY, "replica_lagging");
+    }
+
+    private static Counter routed(MeterRegistry meterRegistry, Target target, String reason) {
+        return Counter.builder("db.routing")
+                .description("Conexiones pedidas por destino y motivo")
+                .tag("target", target.name().toLowerCase())
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String user = currentUser();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            writes.increment();
+            if (user != null && TransactionSynchronizationManager.isActualTransactionActive()
+                    && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        markWrite(user);
+                    }
+                });
+            }
+            return Target.PRIMARY;
+        }
+        if (user != null && isSticky(user)) {
+            stickyReads.increment();
+            return Target.PRIMARY;
+        }
+        if (!lagMonitor.isReplicaUsable()) {
+            laggingReads.increment();
+            return Target.PRIMARY;
+        }
+        replicaReads.increment();
+        return Target.REPLICA;
+    }
+
+    void markWrite(String user) {
+        if (lastWrite.size() >= maxStickyEntries) {
+            // Vaciar solo acorta la ventana: como mucho alguna lectura llega a la réplica algo antes
+            lastWrite.clear();
+        }
+        lastWrite.put(user, System.currentTimeMillis());
+    }
+
+    private boolean isSticky(String user) {
+        Long at = lastWrite.get(user);
+        if (at == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - at < lagMonitor.getReadYourWritesWindowMs()) {
+            return true;
+        }
+        lastWrite.remove(user, at);
+        return false;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
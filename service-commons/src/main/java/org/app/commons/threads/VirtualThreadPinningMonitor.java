@@ -0,0 +1,92 @@
+package org.app.commons.threads;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diagnóstico de pinning en modo de hilos virtuales ({@code spring.threads.virtual.enabled}).
+ * Un hilo virtual que bloquea dentro de un {@code synchronized} (o en código nativo) no libera
+ * su carrier; si esos bloqueos se repiten, los pocos carriers (uno por núcleo) se agotan y el
+ * servicio se comporta peor que con el pool de plataforma.
+ *
+ * <p>Escucha el evento JFR {@code jdk.VirtualThreadPinned} por encima del umbral, cuenta cada evento
+ * en {@code jvm.threads.virtual.pinned} y registra una sola vez cada pila distinta. Cada servicio lo
+ * declara como bean con su propia propiedad de umbral y la condición sobre los hilos virtuales.
+ */
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int SITE_FRAMES = 8;
+    private static final int LOGGED_FRAMES = 20;
+    private static final int MAX_REPORTED_SITES = 1000;
+
+    private final Duration threshold;
+    private final Counter pinned;
+    private final Set<String> reportedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, long thresholdMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+                .description("Bloqueos de hilos virtuales fijados a su carrier por encima del umbral")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Hilos virtuales activos; se registran los bloqueos fijados al carrier de más de {} ms",
+                threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        if (stackTrace == null) {
+            return;
+        }
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        String site = describe(frames, SITE_FRAMES);
+        if (reportedSites.size() < MAX_REPORTED_SITES && reportedSites.add(site)) {
+            logger.warn("Hilo virtual fijado a su carrier durante {} ms ({} eventos hasta ahora, se informa una vez por pila):\n{}",
+                    event.getDuration().toMillis(), (long) pinned.count(), describe(frames, LOGGED_FRAMES));
+        }
+    }
+
+    private static String describe(List<RecordedFrame> frames, int limit) {
+        StringBuilder text = new StringBuilder(limit * 64);
+        for (int i = 0; i < Math.min(limit, frames.size()); i++) {
+            RecordedFrame frame = frames.get(i);
+            text.append("\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber())
+                    .append('\n');
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package org.app.commons.hashing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Pool de un hilo y cola de uno, como el de los servicios pero a escala: el encoder de prueba se
+ * queda bloqueado hasta que el test suelta el latch.
+ */
+class BulkheadPasswordEncoderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private ThreadPoolExecutor executor;
+    private BulkheadPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1),
+                new ThreadPoolExecutor.AbortPolicy());
+        encoder = new BulkheadPasswordEncoder(new BlockingEncoder(), executor, 200, new RecordingTiming());
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fullQueueIsRejectedWithServiceUnavailableAndRetryAfter() throws Exception {
+        executor.submit(this::awaitRelease);
+        executor.submit(this::awaitRelease);
+
+        assertThatThrownBy(() -> encoder.encode("secret"))
+                .isInstanceOfSatisfying(PasswordHashingUnavailableException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+                    assertThat(e.getReason()).isEqualTo("Demasiados cálculos de contraseña en curso, reintente más tarde");
+                });
+        assertThat(events).containsExactly("failed ENCODE PasswordHashingUnavailableException");
+    }
+
+    @Test
+    void slowHashTimesOutWithServiceUnavailable() {
+        assertThatThrownBy(() -> encoder.matches("secret", "hash"))
+                .isInstanceOfSatisfying(PasswordHashingUnavailableException.class, e -> {
+                    assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                    assertThat(e.getReason()).isEqualTo("Tiempo de espera agotado calculando la contraseña");
+                    assertThat(e.getCause()).isInstanceOf(TimeoutException.class);
+                });
+        // El hilo cancelado puede registrar aún su "hashed" después
+        assertThat(events).containsSubsequence("dequeued MATCHES", "failed MATCHES PasswordHashingUnavailableException");
+    }
+
+    @Test
+    void timingSeesQueueHashAndMismatch() {
+        release.countDown();
+
+        assertThat(encoder.matches("wrong", "hash")).isFalse();
+        assertThat(encoder.encode("secret")).isEqualTo("hash");
+
+        assertThat(events).containsExactly(
+                "dequeued MATCHES", "hashed MATCHES", "completed MATCHES mismatch=true",
+                "dequeued ENCODE", "hashed ENCODE", "completed ENCODE mismatch=false");
+    }
+
+    @Test
+    void encoderErrorsReachTheCaller() {
+        encoder = new BulkheadPasswordEncoder(new BlockingEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                throw new IllegalArgumentException("contraseña vacía");
+            }
+        }, executor, 200, new RecordingTiming());
+
+        assertThatThrownBy(() -> encoder.encode(""))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("contraseña vacía");
+        assertThat(events).containsExactly("dequeued ENCODE", "failed ENCODE IllegalArgumentException");
+    }
+
+    @Test
+    void withoutTimingTheEncoderStillWorks() {
+        release.countDown();
+        BulkheadPasswordEncoder plain = new BulkheadPasswordEncoder(new BlockingEncoder(), executor, 200);
+
+        assertThat(plain.matches("secret", "hash")).isTrue();
+    }
+
+    private Void awaitRelease() throws InterruptedException {
+        release.await();
+        return null;
+    }
+
+    private class BlockingEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            awaitQuietly();
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            awaitQuietly();
+            return "secret".contentEquals(rawPassword);
+        }
+
+        private void awaitQuietly() {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private class RecordingTiming implements BulkheadPasswordEncoder.Timing {
+        @Override
+        public void dequeued(BulkheadPasswordEncoder.Operation operation, long submittedNanos) {
+            events.add("dequeued " + operation);
+        }
+
+        @Override
+        public void hashed(BulkheadPasswordEncoder.Operation operation, long startedNanos) {
+            events.add("hashed " + operation);
+        }
+
+        @Override
+        public void completed(BulkheadPasswordEncoder.Operation operation, long submittedNanos, boolean mismatch) {
+            events.add("completed " + operation + " mismatch=" + mismatch);
+        }
+
+        @Override
+        public void failed(BulkheadPasswordEncoder.Operation operation, long submittedNanos, Throwable cause) {
+            events.add("failed " + operation + " " + cause.getClass().getSimpleName());
+        }
+    }
+}
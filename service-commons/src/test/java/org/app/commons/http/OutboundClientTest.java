@@ -0,0 +1,148 @@
+package org.app.commons.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OutboundClientTest {
+
+    private StubHttpServer stub;
+    private OutboundClientProperties properties;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubHttpServer();
+        properties = new OutboundClientProperties();
+        properties.setReadTimeoutMs(2000);
+        OutboundClientProperties.Route slow = new OutboundClientProperties.Route();
+        slow.setPathPrefix("/fast-only");
+        slow.setReadTimeoutMs(200);
+        properties.getRoutes().put("fast-only", slow);
+        properties.getCircuitBreaker().setWindowSize(10);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setFailureRatePct(50);
+        properties.getCircuitBreaker().setOpenMs(300);
+        properties.getCircuitBreaker().setHalfOpenProbes(1);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.close();
+    }
+
+    @Test
+    void readTimeoutDependsOnTheRoute() {
+        RestTemplate client = client();
+        stub.latency(500);
+
+        assertThatThrownBy(() -> client.getForObject(stub.url("/fast-only/x"), String.class))
+                .isInstanceOf(ResourceAccessException.class);
+        assertThat(client.getForObject(stub.url("/other"), String.class)).isEqualTo("{}");
+
+        assertThat(timer("fast-only", "timeout").count()).isEqualTo(1);
+        assertThat(timer("default", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    void circuitOpensOnFailuresAndClosesAfterASuccessfulProbe() throws Exception {
+        RestTemplate client = client();
+        stub.status(503);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.getForObject(stub.url("/x"), String.class))
+                    .isInstanceOf(HttpServerErrorException.class);
+        }
+
+        // Abierto: se rechaza sin llegar al servidor
+        assertThatThrownBy(() -> client.getForObject(stub.url("/x"), String.class))
+                .isInstanceOf(ResourceAccessException.class)
+                .hasCauseInstanceOf(OutboundCallRejectedException.class);
+        assertThat(stub.requests()).isEqualTo(4);
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.OPEN.ordinal());
+
+        stub.status(200);
+        Thread.sleep(350);
+        assertThat(client.getForObject(stub.url("/x"), String.class)).isEqualTo("{}");
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.CLOSED.ordinal());
+        assertThat(timer("default", "circuit_open").count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedProbeReopensTheCircuit() throws Exception {
+        RestTemplate client = client();
+        stub.status(500);
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.getForObject(stub.url("/x"), String.class));
+        }
+        Thread.sleep(350);
+
+        assertThatThrownBy(() -> client.getForObject(stub.url("/x"), String.class))
+                .isInstanceOf(HttpServerErrorException.class);
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.OPEN.ordinal());
+        assertThat(stub.requests()).isEqualTo(5);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() {
+        RestTemplate client = client();
+        stub.status(401);
+        for (int i = 0; i < 6; i++) {
+            assertThatThrownBy(() -> client.getForObject(stub.url("/x"), String.class));
+        }
+
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.CLOSED.ordinal());
+        assertThat(stub.requests()).isEqualTo(6);
+    }
+
+    @Test
+    void callsBeyondTheConcurrencyLimitAreRejected() throws Exception {
+        properties.setMaxConcurrentPerDestination(1);
+        properties.setAcquireTimeoutMs(50);
+        RestTemplate client = client();
+        stub.latency(400);
+
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> client.getForObject(stub.url("/x"), String.class));
+        while (stub.requests() == 0) {
+            Thread.sleep(5);
+        }
+        assertThatThrownBy(() -> client.getForObject(stub.url("/x"), String.class))
+                .hasCauseInstanceOf(OutboundCallRejectedException.class);
+
+        assertThat(inFlight.get(2, TimeUnit.SECONDS)).isEqualTo("{}");
+        assertThat(timer("default", "bulkhead_full").count()).isEqualTo(1);
+    }
+
+    @Test
+    void latencyIsRecordedPerDestination() {
+        client().getForObject(stub.url("/x"), String.class);
+
+        Timer timer = timer("default", "success");
+        assertThat(timer.getId().getTag("destination")).startsWith("http://127.0.0.1:");
+        assertThat(timer.totalTime(TimeUnit.NANOSECONDS)).isPositive();
+    }
+
+    private RestTemplate client() {
+        return OutboundRestTemplates.create(properties, meterRegistry, false);
+    }
+
+    private Timer timer(String route, String outcome) {
+        return meterRegistry.get("http.client.outbound").tag("route", route).tag("outcome", outcome).timer();
+    }
+
+    private double circuitState() {
+        return meterRegistry.get("http.client.circuit.state").gauge().value();
+    }
+}
@@ -0,0 +1,65 @@
+package org.app.commons.replica;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Lo que aporta cada servicio es solo el prefijo: se comprueba que todo se lee de él. */
+class ReadReplicaConfigurationTest {
+
+    @Configuration(proxyBeanMethods = false)
+    static class TestReplicaConfig extends ReadReplicaConfiguration {
+        TestReplicaConfig() {
+            super("test.datasource.replica");
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    private final ApplicationContextRunner runner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class))
+            .withUserConfiguration(TestReplicaConfig.class)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:h2:mem:config-primary;DB_CLOSE_DELAY=-1",
+                    "spring.datasource.username=sa");
+
+    @Test
+    void replicaSettingsAreReadFromTheServicePrefix() {
+        runner.withPropertyValues(
+                        "test.datasource.replica.url=jdbc:h2:mem:config-replica;DB_CLOSE_DELAY=-1",
+                        "test.datasource.replica.username=sa",
+                        "test.datasource.replica.hikari.maximum-pool-size=3",
+                        "test.datasource.replica.maxLagMs=5000",
+                        "test.datasource.replica.heartbeatIntervalMs=1000")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context.getBean(DataSource.class)).isInstanceOf(LazyConnectionDataSourceProxy.class);
+                    assertThat(context.getBean("replicaDataSource", HikariDataSource.class))
+                            .satisfies(replica -> {
+                                assertThat(replica.getMaximumPoolSize()).isEqualTo(3);
+                                assertThat(replica.isReadOnly()).isTrue();
+                            });
+                    assertThat(context.getBean(ReplicaLagMonitor.class).getReadYourWritesWindowMs()).isEqualTo(7000);
+                });
+    }
+
+    @Test
+    void missingReplicaUrlFailsAtStartup() {
+        runner.run(context -> assertThat(context).getFailure()
+                .hasRootCauseMessage("test.datasource.replica.url es obligatorio con la réplica activa"));
+    }
+}
@@ -0,0 +1,165 @@
+package org.app.commons.replica;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Dos H2 en memoria sin replicación entre ellas: la tabla {@code origin} tiene un valor distinto en
+ * cada una y dice de dónde se leyó. El latido se "replica" a mano y el sondeo se invoca desde el test
+ * (intervalo de una hora).
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private ReplicaLagMonitor lagMonitor;
+    private MeterRegistry meterRegistry;
+    private JdbcTemplate routed;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        String name = UUID.randomUUID().toString();
+        JdbcDataSource primaryDataSource = h2("primary-" + name);
+        JdbcDataSource replicaDataSource = h2("replica-" + name);
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        for (JdbcTemplate db : List.of(primary, replica)) {
+            db.execute("CREATE TABLE origin (name VARCHAR(16))");
+            db.execute("CREATE TABLE notes (text VARCHAR(64))");
+        }
+        primary.update("INSERT INTO origin VALUES ('primary')");
+        replica.update("INSERT INTO origin VALUES ('replica')");
+
+        meterRegistry = new SimpleMeterRegistry();
+        lagMonitor = new ReplicaLagMonitor(primaryDataSource, replicaDataSource, 2 * HOUR_MS, HOUR_MS, meterRegistry);
+        lagMonitor.start();
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource,
+                lagMonitor, 100, meterRegistry);
+        routing.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy();
+        dataSource.setTargetDataSource(routing);
+        // Sin estos valores el proxy pide una conexión al primer uso para leerlos, y contaría como escritura
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        dataSource.afterPropertiesSet();
+        routed = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lagMonitor.stop();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplicaAndTheRestToThePrimary() {
+        replicateHeartbeat(System.currentTimeMillis());
+
+        assertThat(readOnly()).isEqualTo("replica");
+        assertThat(readWrite()).isEqualTo("primary");
+        assertThat(routed("read_only")).isEqualTo(1);
+        assertThat(routed("write")).isEqualTo(1);
+        assertThat(meterRegistry.get("db.replica.lag").gauge().value()).isBetween(0.0, 1000.0);
+    }
+
+    @Test
+    void replicaWithoutHeartbeatIsNotUsed() {
+        // start() ya sondeó: la réplica no tiene latido y cuenta como retraso desconocido
+        assertThat(lagMonitor.getLagMs()).isEqualTo(-1);
+        assertThat(readOnly()).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaSendsReadsToThePrimary() {
+        replicateHeartbeat(System.currentTimeMillis() - 3 * HOUR_MS);
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(routed("replica_lagging")).isEqualTo(1);
+    }
+
+    @Test
+    void readsAfterOwnWriteStayOnThePrimary() {
+        replicateHeartbeat(System.currentTimeMillis());
+
+        authenticate("alice");
+        write("alice was here");
+        assertThat(readOnly()).isEqualTo("primary");
+        assertThat(routed("read_your_writes")).isEqualTo(1);
+
+        authenticate("bob");
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotPinTheUser() {
+        replicateHeartbeat(System.currentTimeMillis());
+
+        authenticate("carol");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            routed.update("INSERT INTO notes VALUES ('discarded')");
+            status.setRollbackOnly();
+        });
+
+        assertThat(readOnly()).isEqualTo("replica");
+    }
+
+    private String readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template.execute(status -> routed.queryForObject("SELECT name FROM origin", String.class));
+    }
+
+    private String readWrite() {
+        return new TransactionTemplate(transactionManager)
+                .execute(status -> routed.queryForObject("SELECT name FROM origin", String.class));
+    }
+
+    private void write(String text) {
+        new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> routed.update("INSERT INTO notes VALUES (?)", text));
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken(username, null, List.of()));
+    }
+
+    private double routed(String reason) {
+        return meterRegistry.get("db.routing").tag("reason", reason).counter().count();
+    }
+
+    /** Lo que haría la replicación con la fila del latido, y el sondeo que la lee. */
+    private void replicateHeartbeat(long beatMs) {
+        replica.execute("CREATE TABLE IF NOT EXISTS " + ReplicaLagMonitor.TABLE + " (id INT PRIMARY KEY, beat_ms BIGINT NOT NULL)");
+        replica.update("DELETE FROM " + ReplicaLagMonitor.TABLE);
+        replica.update("INSERT INTO " + ReplicaLagMonitor.TABLE + " (id, beat_ms) VALUES (1, ?)", beatMs);
+        lagMonitor.probe();
+    }
+
+    private static JdbcDataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}